@@ -13,6 +13,11 @@ export const getToken = () => localStorage.getItem('auth_token');
 export const setToken = (token: string) => localStorage.setItem('auth_token', token);
 export const removeToken = () => localStorage.removeItem('auth_token');
 
+// Refresh token management
+export const getRefreshToken = () => localStorage.getItem('refresh_token');
+export const setRefreshToken = (token: string) => localStorage.setItem('refresh_token', token);
+export const removeRefreshToken = () => localStorage.removeItem('refresh_token');
+
 // User role management
 export const getUserRole = () => localStorage.getItem('user_role');
 export const setUserRole = (role: string) => localStorage.setItem('user_role', role);
@@ -29,6 +34,7 @@ export const isAuthenticated = () => !!getToken();
 // Clear all auth data
 export const clearAuthData = () => {
   removeToken();
+  removeRefreshToken();
   removeUserRole();
   removeUserId();
 };
@@ -59,68 +65,59 @@ async function handleResponse<T>(response: Response): Promise<ApiResponse<T>> {
   }
 }
 
-export async function fetchData<T>(endpoint: string): Promise<ApiResponse<T>> {
-  try {
-    const headers: HeadersInit = {
-      "Content-Type": "application/json"
-    };
-    
-    const token = getToken();
-    if (token) {
-      headers["Authorization"] = `Bearer ${token}`;
-    }
-    
-    const response = await fetch(`${API_BASE_URL}${endpoint}`, { headers });
-    return handleResponse<T>(response);
-  } catch (error) {
-    const errorMessage = error instanceof Error ? error.message : "Network error";
-    toast.error(errorMessage);
-    console.error("API Error:", errorMessage);
-    return { data: null, error: errorMessage, status: 0 };
+let pendingRefresh: Promise<boolean> | null = null;
+
+// Trades the refresh token for a new pair; concurrent 401s share one call, since each refresh token works once
+function refreshTokens(): Promise<boolean> {
+  if (!pendingRefresh) {
+    pendingRefresh = (async () => {
+      const refreshToken = getRefreshToken();
+      if (!refreshToken) {
+        return false;
+      }
+      try {
+        const response = await fetch(`${API_BASE_URL}/auth/refresh`, {
+          method: "POST",
+          headers: { "Content-Type": "application/json" },
+          body: JSON.stringify({ refreshToken })
+        });
+        if (!response.ok) {
+          return false;
+        }
+        const data = await response.json();
+        setToken(data.token);
+        setRefreshToken(data.refreshToken);
+        return true;
+      } catch (error) {
+        return false;
+      }
+    })().finally(() => {
+      pendingRefresh = null;
+    });
   }
+  return pendingRefresh;
 }
 
-export async function postData<T>(endpoint: string, data: any): Promise<ApiResponse<T>> {
-  try {
-    const headers: HeadersInit = {
-      "Content-Type": "application/json"
-    };
-    
-    const token = getToken();
-    if (token) {
-      headers["Authorization"] = `Bearer ${token}`;
-    }
-    
-    const response = await fetch(`${API_BASE_URL}${endpoint}`, {
-      method: "POST",
-      headers,
-      body: JSON.stringify(data)
-    });
-    return handleResponse<T>(response);
-  } catch (error) {
-    const errorMessage = error instanceof Error ? error.message : "Network error";
-    toast.error(errorMessage);
-    console.error("API Error:", errorMessage);
-    return { data: null, error: errorMessage, status: 0 };
+function send(endpoint: string, init: RequestInit): Promise<Response> {
+  const headers: HeadersInit = {
+    "Content-Type": "application/json"
+  };
+
+  const token = getToken();
+  if (token) {
+    headers["Authorization"] = `Bearer ${token}`;
   }
+
+  return fetch(`${API_BASE_URL}${endpoint}`, { ...init, headers });
 }
 
-export async function putData<T>(endpoint: string, data: any): Promise<ApiResponse<T>> {
+// Retries once with fresh tokens when the access token has expired
+async function request<T>(endpoint: string, init: RequestInit = {}): Promise<ApiResponse<T>> {
   try {
-    const headers: HeadersInit = {
-      "Content-Type": "application/json"
-    };
-    
-    const token = getToken();
-    if (token) {
-      headers["Authorization"] = `Bearer ${token}`;
+    let response = await send(endpoint, init);
+    if (response.status === 401 && !endpoint.startsWith("/auth/") && await refreshTokens()) {
+      response = await send(endpoint, init);
     }
-    
-    const response = await fetch(`${API_BASE_URL}${endpoint}`, {
-      method: "PUT",
-      headers,
-      body: JSON.stringify(data)
-    });
     return handleResponse<T>(response);
   } catch (error) {
     const errorMessage = error instanceof Error ? error.message : "Network error";
@@ -130,34 +127,34 @@ export async function putData<T>(endpoint: string, data: any): Promise<ApiRespon
   }
 }
 
+export async function fetchData<T>(endpoint: string): Promise<ApiResponse<T>> {
+  return request<T>(endpoint);
+}
+
+export async function postData<T>(endpoint: string, data: any): Promise<ApiResponse<T>> {
+  return request<T>(endpoint, {
+    method: "POST",
+    body: JSON.stringify(data)
+  });
+}
+
+export async function putData<T>(endpoint: string, data: any): Promise<ApiResponse<T>> {
+  return request<T>(endpoint, {
+    method: "PUT",
+    body: JSON.stringify(data)
+  });
+}
+
 export async function deleteData<T>(endpoint: string, data?: any): Promise<ApiResponse<T>> {
-  try {
-    const headers: HeadersInit = {
-      "Content-Type": "application/json"
-    };
-    
-    const token = getToken();
-    if (token) {
-      headers["Authorization"] = `Bearer ${token}`;
-    }
-    
-    const options: RequestInit = {
-      method: "DELETE",
-      headers
-    };
-    
-    if (data) {
-      options.body = JSON.stringify(data);
-    }
-    
-    const response = await fetch(`${API_BASE_URL}${endpoint}`, options);
-    return handleResponse<T>(response);
-  } catch (error) {
-    const errorMessage = error instanceof Error ? error.message : "Network error";
-    toast.error(errorMessage);
-    console.error("API Error:", errorMessage);
-    return { data: null, error: errorMessage, status: 0 };
+  const options: RequestInit = {
+    method: "DELETE"
+  };
+
+  if (data) {
+    options.body = JSON.stringify(data);
   }
+
+  return request<T>(endpoint, options);
 }
 
 /**
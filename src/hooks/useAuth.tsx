@@ -1,7 +1,7 @@
 
 import { createContext, useContext, useState, useEffect, ReactNode } from 'react';
 import { useNavigate } from 'react-router-dom';
-import { postData, getToken, setToken, removeToken, getUserRole, setUserRole, removeUserRole, getUserId, setUserId, removeUserId } from '@/api/api-client';
+import { postData, getToken, setToken, removeToken, getRefreshToken, setRefreshToken, removeRefreshToken, getUserRole, setUserRole, removeUserRole, getUserId, setUserId, removeUserId } from '@/api/api-client';
 import { toast } from 'sonner';
 
 interface AuthContextType {
@@ -22,6 +22,7 @@ interface AuthProviderProps {
 
 interface LoginResponse {
   token: string;
+  refreshToken: string;
   type: string;
   id: number;
   username: string;
@@ -64,6 +65,7 @@ export const AuthProvider = ({ children }: AuthProviderProps) => {
       
       if (response.data) {
         setToken(response.data.token);
+        setRefreshToken(response.data.refreshToken);
         
         // Determine highest role
         let role = 'ROLE_USER';
@@ -124,7 +126,13 @@ export const AuthProvider = ({ children }: AuthProviderProps) => {
   };
 
   const logout = () => {
+    // Revokes the session server-side; the refresh token would otherwise stay usable until it expires
+    const refreshToken = getRefreshToken();
+    if (refreshToken) {
+      postData('/auth/logout', { refreshToken });
+    }
     removeToken();
+    removeRefreshToken();
     removeUserRole();
     removeUserId();
     setIsAuthenticated(false);
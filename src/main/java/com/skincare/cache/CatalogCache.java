@@ -0,0 +1,279 @@
+package com.skincare.cache;
+
+import com.skincare.dto.ServiceDto;
+import com.skincare.dto.TherapistDto;
+import com.skincare.mapper.ServiceMapper;
+import com.skincare.mapper.TherapistMapper;
+import com.skincare.repository.ServiceRepository;
+import com.skincare.repository.TherapistRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-mostly copy of the service and therapist catalog. Readers get the current immutable snapshot without
+ * locking; writers build a replacement once their transaction commits and swap it in, so readers never wait.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCache {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+
+    private final ServiceRepository serviceRepository;
+    private final TherapistRepository therapistRepository;
+    private final ServiceMapper serviceMapper;
+    private final TherapistMapper therapistMapper;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private volatile long lastRebuildNanos;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        install(build());
+    }
+
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            hits.increment();
+            return snapshot;
+        }
+        // Only before the first load, or after a failed refresh
+        misses.increment();
+        return install(build());
+    }
+
+    /**
+     * Replaces the snapshot, deferred until commit when called inside a transaction so readers never
+     * see data that could still roll back.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        CatalogSnapshot snapshot = current.get();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hits", hitCount);
+        metrics.put("misses", missCount);
+        metrics.put("hitRatio", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        metrics.put("rebuilds", rebuilds.sum());
+        metrics.put("lastRebuildMillis", lastRebuildNanos / 1_000_000.0);
+        metrics.put("version", snapshot != null ? snapshot.version() : null);
+        return metrics;
+    }
+
+    private void refresh() {
+        generation.incrementAndGet();
+        try {
+            install(build());
+        } catch (RuntimeException e) {
+            // Fall back to loading on the next read rather than serving the catalog from before the commit
+            logger.warn("Could not rebuild the catalog snapshot, it will be reloaded on the next read", e);
+            current.set(null);
+        }
+    }
+
+    private CatalogSnapshot build() {
+        long version = generation.get();
+        long started = System.nanoTime();
+        List<ServiceDto> services = serviceMapper.toDtoList(serviceRepository.findAll());
+        List<TherapistDto> therapists = therapistMapper.toDtoList(therapistRepository.findAll());
+        lastRebuildNanos = System.nanoTime() - started;
+        rebuilds.increment();
+        return new CatalogSnapshot(version, services, therapists);
+    }
+
+    // A build that started earlier can finish later, so the snapshot of the newest generation wins
+    private CatalogSnapshot install(CatalogSnapshot built) {
+        return current.accumulateAndGet(built, (existing, next) ->
+                existing == null || next.version() >= existing.version() ? next : existing);
+    }
+
+    private static <T> Map<Long, T> byId(List<T> items, Function<T, Long> id) {
+        Map<Long, T> byId = new LinkedHashMap<>();
+        for (T item : items) {
+            byId.put(id.apply(item), item);
+        }
+        return Map.copyOf(byId);
+    }
+
+    /**
+     * One version of the catalog. The DTOs are frozen when the snapshot is built and handed out as they are, so
+     * every reader of a version shares them; callers that want to change one start from {@code toBuilder()}.
+     */
+    public static final class CatalogSnapshot {
+        private final long version;
+        private final List<ServiceDto> services;
+        private final Map<Long, ServiceDto> servicesById;
+        private final List<TherapistDto> therapists;
+        private final Map<Long, TherapistDto> therapistsById;
+
+        private CatalogSnapshot(long version, List<ServiceDto> services, List<TherapistDto> therapists) {
+            this.version = version;
+            this.services = services.stream().<ServiceDto>map(FrozenServiceDto::new).toList();
+            this.servicesById = byId(this.services, ServiceDto::getId);
+            this.therapists = therapists.stream().<TherapistDto>map(FrozenTherapistDto::new).toList();
+            this.therapistsById = byId(this.therapists, TherapistDto::getId);
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public List<ServiceDto> services() {
+            return services;
+        }
+
+        public boolean containsService(Long id) {
+            return servicesById.containsKey(id);
+        }
+
+        public ServiceDto service(Long id) {
+            return servicesById.get(id);
+        }
+
+        public List<TherapistDto> therapists() {
+            return therapists;
+        }
+
+        public boolean containsTherapist(Long id) {
+            return therapistsById.containsKey(id);
+        }
+
+        public TherapistDto therapist(Long id) {
+            return therapistsById.get(id);
+        }
+    }
+
+    // The setters are the only way to change a ServiceDto, so overriding them freezes it
+    private static final class FrozenServiceDto extends ServiceDto {
+        private FrozenServiceDto(ServiceDto service) {
+            super(service.getId(), service.getName(), service.getDescription(), service.getPrice(),
+                    service.getDurationMinutes());
+        }
+
+        @Override
+        public void setId(Long id) {
+            throw frozen();
+        }
+
+        @Override
+        public void setName(String name) {
+            throw frozen();
+        }
+
+        @Override
+        public void setDescription(String description) {
+            throw frozen();
+        }
+
+        @Override
+        public void setPrice(BigDecimal price) {
+            throw frozen();
+        }
+
+        @Override
+        public void setDurationMinutes(Integer durationMinutes) {
+            throw frozen();
+        }
+    }
+
+    private static final class FrozenTherapistDto extends TherapistDto {
+        private FrozenTherapistDto(TherapistDto therapist) {
+            super(therapist.getId(), therapist.getFirstName(), therapist.getLastName(), therapist.getBio(),
+                    therapist.getSpecialization(), therapist.getEmail(), therapist.getPhoneNumber(),
+                    therapist.getPhotoUrl(), therapist.getWorkSchedule(),
+                    therapist.getServiceIds() != null
+                            ? Collections.unmodifiableSet(new LinkedHashSet<>(therapist.getServiceIds()))
+                            : null);
+        }
+
+        @Override
+        public void setId(Long id) {
+            throw frozen();
+        }
+
+        @Override
+        public void setFirstName(String firstName) {
+            throw frozen();
+        }
+
+        @Override
+        public void setLastName(String lastName) {
+            throw frozen();
+        }
+
+        @Override
+        public void setBio(String bio) {
+            throw frozen();
+        }
+
+        @Override
+        public void setSpecialization(String specialization) {
+            throw frozen();
+        }
+
+        @Override
+        public void setEmail(String email) {
+            throw frozen();
+        }
+
+        @Override
+        public void setPhoneNumber(String phoneNumber) {
+            throw frozen();
+        }
+
+        @Override
+        public void setPhotoUrl(String photoUrl) {
+            throw frozen();
+        }
+
+        @Override
+        public void setWorkSchedule(String workSchedule) {
+            throw frozen();
+        }
+
+        @Override
+        public void setServiceIds(Set<Long> serviceIds) {
+            throw frozen();
+        }
+    }
+
+    private static UnsupportedOperationException frozen() {
+        return new UnsupportedOperationException("Catalog snapshots are shared, copy with toBuilder() to change");
+    }
+}
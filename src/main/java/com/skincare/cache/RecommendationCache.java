@@ -0,0 +1,117 @@
+package com.skincare.cache;
+
+import com.skincare.dto.ServiceDto;
+import com.skincare.dto.SkinTestDto;
+import com.skincare.index.RecommendationIndex;
+import com.skincare.index.ServiceSearchIndex;
+import com.skincare.index.ServiceSimilarityIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of skin-test recommendations. Skin tests that only differ in word order, case or
+ * punctuation share a profile and so share one entry. Entries are dropped as soon as the catalog or the
+ * similarity model they were computed from is replaced.
+ */
+@Component
+public class RecommendationCache {
+    private static final int NO_SCORE = 15;
+
+    private final CatalogCache catalogCache;
+    private final ServiceSimilarityIndex similarityIndex;
+    private final Map<Long, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long catalogVersion = -1;
+    private long similarityVersion = -1;
+
+    public RecommendationCache(CatalogCache catalogCache, ServiceSimilarityIndex similarityIndex,
+                               @Value("${skincare.app.recommendations.cacheSize:10000}") int maxEntries) {
+        this.catalogCache = catalogCache;
+        this.similarityIndex = similarityIndex;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public List<ServiceDto> get(SkinTestDto skinTest, Supplier<List<ServiceDto>> compute) {
+        long catalog = catalogCache.snapshot().version();
+        long similarity = similarityIndex.version();
+        String profile = profile(skinTest);
+        long key = key(profile, skinTest);
+
+        synchronized (entries) {
+            if (catalog != catalogVersion || similarity != similarityVersion) {
+                entries.clear();
+                catalogVersion = catalog;
+                similarityVersion = similarity;
+            }
+            // The key only hashes the words, so the words themselves decide whether it is really the same profile
+            Entry entry = entries.get(key);
+            if (entry != null && entry.profile().equals(profile)) {
+                hits.increment();
+                return entry.services();
+            }
+        }
+
+        misses.increment();
+        // Recommendations are the catalog snapshot's frozen DTOs, so only the list needs to be made read-only
+        List<ServiceDto> services = List.copyOf(compute.get());
+        synchronized (entries) {
+            if (catalog == catalogVersion && similarity == similarityVersion) {
+                entries.put(key, new Entry(profile, services));
+            }
+        }
+        return services;
+    }
+
+    public Map<String, Object> metrics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hits", hitCount);
+        metrics.put("misses", missCount);
+        metrics.put("hitRatio", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        synchronized (entries) {
+            metrics.put("size", entries.size());
+        }
+        return metrics;
+    }
+
+    private static String profile(SkinTestDto skinTest) {
+        List<String> concerns = new ArrayList<>(ServiceSearchIndex.tokenize(skinTest.getSkinConcerns()));
+        concerns.sort(null);
+        return String.join(" ", ServiceSearchIndex.tokenize(skinTest.getSkinType())) + "|" + String.join(" ", concerns);
+    }
+
+    // Words hash in the upper 32 bits, the five scores as 4-bit buckets in the lower 20
+    private static long key(String profile, SkinTestDto skinTest) {
+        long scores = 0;
+        for (Integer score : new Integer[] {skinTest.getOiliness(), skinTest.getSensitivity(),
+                skinTest.getHydration(), skinTest.getPigmentation(), skinTest.getWrinkles()}) {
+            scores = scores << 4 | bucket(score);
+        }
+        return (long) profile.hashCode() << 32 | scores;
+    }
+
+    // The scoring clamps to the scale, so one bucket per scale step loses nothing
+    private static int bucket(Integer score) {
+        if (score == null) {
+            return NO_SCORE;
+        }
+        return Math.max(0, Math.min(RecommendationIndex.SCALE_MAX, score));
+    }
+
+    private record Entry(String profile, List<ServiceDto> services) {
+    }
+}
@@ -0,0 +1,111 @@
+package com.skincare.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON responses serialized once into bytes, with a gzipped variant and a strong ETag over the content.
+ * An entry is rendered again only when the caller asks for a newer version of it.
+ */
+@Component
+@RequiredArgsConstructor
+public class RenderedResponseCache {
+    private final ObjectMapper objectMapper;
+    private final Map<String, RenderedResponse> responses = new ConcurrentHashMap<>();
+
+    public RenderedResponse get(String key, long version, Supplier<?> body) {
+        RenderedResponse rendered = responses.get(key);
+        if (rendered != null && rendered.version() >= version) {
+            return rendered;
+        }
+        RenderedResponse fresh = render(version, body.get());
+        return responses.merge(key, fresh, (existing, next) -> next.version() >= existing.version() ? next : existing);
+    }
+
+    public ResponseEntity<byte[]> serve(RenderedResponse rendered, String ifNoneMatch, String acceptEncoding) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(rendered.etag());
+        headers.setCacheControl(CacheControl.noCache());
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        if (matches(ifNoneMatch, rendered.etag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (rendered.gzipped() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(rendered.gzipped(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(rendered.body(), headers, HttpStatus.OK);
+    }
+
+    private RenderedResponse render(long version, Object body) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(body);
+            byte[] gzipped = gzip(bytes);
+            return new RenderedResponse(version, bytes, gzipped.length < bytes.length ? gzipped : null, etag(bytes));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not render cached response", e);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The byte arrays are shared between all requests and must not be modified.
+     */
+    public record RenderedResponse(long version, byte[] body, byte[] gzipped, String etag) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.skincare.config;
+
+import com.skincare.model.Booking;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves booking_seq past the bookings that already exist. Databases created while booking ids came from
+ * IDENTITY get the sequence (a table on MySQL) added by ddl-auto starting at 1, so new ids would collide.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingSequenceInitializer {
+    private static final Logger logger = LoggerFactory.getLogger(BookingSequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    // Only here so the schema has been created or updated before the sequence is seeded
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void seed() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM bookings", Long.class);
+        if (maxId == null) {
+            return;
+        }
+
+        // The pooled optimizer hands out [next_val - allocation + 1, next_val], so next_val has to be at least
+        // MAX(id) + allocation. It only ever moves forward: other instances may still be using their ranges
+        long floor = maxId + Booking.ID_ALLOCATION_SIZE;
+        try {
+            if (jdbcTemplate.update("UPDATE booking_seq SET next_val = ? WHERE next_val < ?", floor, floor) > 0) {
+                logger.info("Moved booking_seq to {} past existing booking id {}", floor, maxId);
+            }
+        } catch (BadSqlGrammarException e) {
+            logger.debug("booking_seq is a native sequence, leaving it to the database: {}", e.getMessage());
+        }
+    }
+}
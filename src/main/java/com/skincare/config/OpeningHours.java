@@ -0,0 +1,46 @@
+package com.skincare.config;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Salon opening hours and booking notice, shared by the published schedule and the slot search.
+ */
+public final class OpeningHours {
+    public static final int MIN_BOOKING_NOTICE_HOURS = 24;
+
+    public static final LocalTime WEEKDAY_OPEN = LocalTime.of(9, 0);
+    public static final LocalTime WEEKDAY_CLOSE = LocalTime.of(20, 0);
+    public static final LocalTime SATURDAY_OPEN = LocalTime.of(10, 0);
+    public static final LocalTime SATURDAY_CLOSE = LocalTime.of(18, 0);
+    public static final LocalTime SUNDAY_OPEN = LocalTime.of(10, 0);
+    public static final LocalTime SUNDAY_CLOSE = LocalTime.of(16, 0);
+    public static final LocalTime HOLIDAY_OPEN = LocalTime.of(11, 0);
+    public static final LocalTime HOLIDAY_CLOSE = LocalTime.of(15, 0);
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private OpeningHours() {
+    }
+
+    public static LocalTime opening(DayOfWeek dayOfWeek) {
+        return switch (dayOfWeek) {
+            case SATURDAY -> SATURDAY_OPEN;
+            case SUNDAY -> SUNDAY_OPEN;
+            default -> WEEKDAY_OPEN;
+        };
+    }
+
+    public static LocalTime closing(DayOfWeek dayOfWeek) {
+        return switch (dayOfWeek) {
+            case SATURDAY -> SATURDAY_CLOSE;
+            case SUNDAY -> SUNDAY_CLOSE;
+            default -> WEEKDAY_CLOSE;
+        };
+    }
+
+    public static String describe(LocalTime open, LocalTime close) {
+        return FORMAT.format(open) + " - " + FORMAT.format(close);
+    }
+}
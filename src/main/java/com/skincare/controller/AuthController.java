@@ -9,6 +9,8 @@ import java.util.stream.Collectors;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,6 +19,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -28,14 +31,18 @@ import com.skincare.model.Role.ERole;
 import com.skincare.model.User;
 import com.skincare.payload.request.LoginRequest;
 import com.skincare.payload.request.SignupRequest;
+import com.skincare.payload.request.TokenRefreshRequest;
 import com.skincare.payload.response.JwtResponse;
 import com.skincare.payload.response.MessageResponse;
 import com.skincare.repository.CustomerRepository;
 import com.skincare.repository.RoleRepository;
 import com.skincare.repository.UserRepository;
 import com.skincare.security.jwt.JwtUtils;
+import com.skincare.security.jwt.TokenDenylist;
+import com.skincare.security.services.RefreshTokenService;
 import com.skincare.security.services.UserDetailsImpl;
 
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
@@ -64,28 +71,56 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    TokenDenylist tokenDenylist;
+
+    @Autowired
+    RefreshTokenService refreshTokenService;
+
     @PostMapping("/login")
-    @Operation(summary = "User login", description = "Authenticate a user and return JWT token")
+    @Operation(summary = "User login", description = "Authenticate a user and return a short-lived JWT token and a refresh token")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
-        
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        List<String> roles = userDetails.getAuthorities().stream()
-                .map(item -> item.getAuthority())
-                .collect(Collectors.toList());
+        String refreshToken = refreshTokenService.issue(userDetails.getId());
 
-        return ResponseEntity.ok(new JwtResponse(
-                jwt, 
-                userDetails.getId(), 
-                userDetails.getUsername(), 
-                userDetails.getEmail(),
-                userDetails.getCustomerId(),
-                userDetails.getTherapistId(),
-                roles));
+        return ResponseEntity.ok(toJwtResponse(userDetails, refreshToken));
+    }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh tokens", description = "Exchange a refresh token for a new access token and refresh token")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody TokenRefreshRequest refreshRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        if (rotation == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new MessageResponse("Error: Refresh token is invalid, expired or already used!"));
+        }
+
+        return ResponseEntity.ok(toJwtResponse(rotation.user(), rotation.refreshToken()));
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "User logout", description = "Revoke the JWT token sent in the Authorization header and the refresh token family of the optional body")
+    public ResponseEntity<?> logoutUser(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                        @RequestBody(required = false) TokenRefreshRequest refreshRequest) {
+        boolean refreshRevoked = refreshRequest != null && refreshRequest.getRefreshToken() != null;
+        if (refreshRevoked) {
+            refreshTokenService.revoke(refreshRequest.getRefreshToken());
+        }
+
+        String jwt = jwtUtils.parseBearerToken(authorization);
+        Claims claims = jwt != null ? jwtUtils.parseClaims(jwt) : null;
+        if (claims != null && claims.getId() != null) {
+            tokenDenylist.revoke(claims.getId(), claims.getExpiration());
+        } else if (!refreshRevoked) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: No revocable token to log out!"));
+        }
+
+        SecurityContextHolder.clearContext();
+        return ResponseEntity.ok(new MessageResponse("Logged out successfully!"));
     }
 
     @PostMapping("/register")
@@ -124,4 +159,20 @@ public class AuthController {
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
+
+    private JwtResponse toJwtResponse(UserDetailsImpl userDetails, String refreshToken) {
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(item -> item.getAuthority())
+                .collect(Collectors.toList());
+
+        return new JwtResponse(
+                jwtUtils.generateJwtToken(userDetails),
+                refreshToken,
+                userDetails.getId(), 
+                userDetails.getUsername(), 
+                userDetails.getEmail(),
+                userDetails.getCustomerId(),
+                userDetails.getTherapistId(),
+                roles);
+    }
 }
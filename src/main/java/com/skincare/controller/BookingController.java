@@ -1,17 +1,24 @@
 
 package com.skincare.controller;
 
+import com.skincare.dto.AvailableSlotDto;
 import com.skincare.dto.BookingDto;
+import com.skincare.dto.BulkBookingRequest;
+import com.skincare.dto.BulkBookingResultDto;
 import com.skincare.model.Booking;
 import com.skincare.service.BookingService;
+import com.skincare.service.SlotSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,6 +27,7 @@ import java.util.Map;
 @Tag(name = "Bookings", description = "Booking management APIs")
 public class BookingController {
     private final BookingService bookingService;
+    private final SlotSearchService slotSearchService;
 
     @PostMapping
     @Operation(summary = "Create new booking", description = "Creates a new booking for a service")
@@ -28,6 +36,17 @@ public class BookingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdBooking);
     }
 
+    @GetMapping("/slots")
+    @Operation(summary = "Find available slots", description = "Returns the next open slots for a service across all therapists offering it")
+    public ResponseEntity<List<AvailableSlotDto>> getAvailableSlots(
+            @RequestParam Long serviceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<AvailableSlotDto> slots = slotSearchService.findAvailableSlots(serviceId, from, to, limit);
+        return ResponseEntity.ok(slots);
+    }
+
     @PutMapping("/{id}/checkin")
     @Operation(summary = "Check in customer", description = "Records when a customer checks in for their appointment")
     public ResponseEntity<BookingDto> checkInBooking(@PathVariable Long id) {
@@ -73,4 +92,28 @@ public class BookingController {
         bookingService.cancelBooking(id, reason);
         return ResponseEntity.noContent().build();
     }
+
+    @PutMapping("/checkin")
+    @Operation(summary = "Check in customers in bulk", description = "Checks in several bookings in one transaction and reports the result per booking")
+    public ResponseEntity<List<BulkBookingResultDto>> checkInBookings(@Valid @RequestBody BulkBookingRequest request) {
+        List<BulkBookingResultDto> results = bookingService.checkInBookings(request.getBookingIds());
+        return ResponseEntity.ok(results);
+    }
+
+    @PutMapping("/checkout")
+    @Operation(summary = "Check out customers in bulk", description = "Checks out several bookings in one transaction and reports the result per booking")
+    public ResponseEntity<List<BulkBookingResultDto>> checkOutBookings(@Valid @RequestBody BulkBookingRequest request) {
+        List<BulkBookingResultDto> results = bookingService.checkOutBookings(request.getBookingIds());
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("/payment")
+    @Operation(summary = "Process payments in bulk", description = "Processes payment for several bookings in one transaction and reports the result per booking")
+    public ResponseEntity<List<BulkBookingResultDto>> processPayments(@Valid @RequestBody BulkBookingRequest request) {
+        if (request.getPaymentMethod() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<BulkBookingResultDto> results = bookingService.processPayments(request.getBookingIds(), request.getPaymentMethod());
+        return ResponseEntity.ok(results);
+    }
 }
@@ -1,17 +1,23 @@
 
 package com.skincare.controller;
 
+import com.skincare.service.BookingExportService;
 import com.skincare.service.DashboardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Map;
 
@@ -21,6 +27,7 @@ import java.util.Map;
 @Tag(name = "Dashboard", description = "Dashboard and reporting APIs")
 public class DashboardController {
     private final DashboardService dashboardService;
+    private final BookingExportService bookingExportService;
 
     @GetMapping("/dashboard")
     @Operation(summary = "Get dashboard data", description = "Retrieves overview data for the dashboard")
@@ -37,4 +44,28 @@ public class DashboardController {
         Map<String, Object> report = dashboardService.generateReport(startDate, endDate);
         return ResponseEntity.ok(report);
     }
+
+    @GetMapping("/reports/export")
+    @Operation(summary = "Export bookings", description = "Streams the bookings of a date range as NDJSON or CSV")
+    public void exportReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "NDJSON") BookingExportService.ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        boolean csv = format == BookingExportService.ExportFormat.CSV;
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"bookings." + (csv ? "csv" : "ndjson") + "\"");
+        bookingExportService.export(startDate, endDate, format, response.getOutputStream());
+    }
+
+    @PostMapping("/reports/rollups/rebuild")
+    @Operation(summary = "Rebuild report rollups", description = "Recomputes the daily booking rollups for a date range from the bookings table")
+    public ResponseEntity<Map<String, Object>> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        int rollups = dashboardService.rebuildRollups(startDate, endDate);
+        return ResponseEntity.ok(Map.of("startDate", startDate, "endDate", endDate, "rollups", rollups));
+    }
 }
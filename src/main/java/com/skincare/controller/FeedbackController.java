@@ -2,6 +2,8 @@
 package com.skincare.controller;
 
 import com.skincare.dto.FeedbackDto;
+import com.skincare.dto.FeedbackPageDto;
+import com.skincare.dto.RatingSummaryDto;
 import com.skincare.service.FeedbackService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -21,13 +23,27 @@ public class FeedbackController {
     private final FeedbackService feedbackService;
 
     @GetMapping
-    @Operation(summary = "Get feedback", description = "Retrieves feedback by service or therapist ID")
-    public ResponseEntity<List<FeedbackDto>> getFeedback(@RequestParam(required = false) Long serviceId, 
-                                                         @RequestParam(required = false) Long therapistId) {
+    @Operation(summary = "Get feedback", description = "Retrieves a page of feedback by service or therapist ID, newest first; pass nextCursor as cursor for the following page")
+    public ResponseEntity<FeedbackPageDto> getFeedback(@RequestParam(required = false) Long serviceId, 
+                                                       @RequestParam(required = false) Long therapistId,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer limit) {
         if (serviceId != null) {
-            return ResponseEntity.ok(feedbackService.getFeedbackByService(serviceId));
+            return ResponseEntity.ok(feedbackService.getFeedbackByService(serviceId, cursor, limit));
         } else if (therapistId != null) {
-            return ResponseEntity.ok(feedbackService.getFeedbackByTherapist(therapistId));
+            return ResponseEntity.ok(feedbackService.getFeedbackByTherapist(therapistId, cursor, limit));
+        }
+        return ResponseEntity.badRequest().build();
+    }
+
+    @GetMapping("/summary")
+    @Operation(summary = "Get rating summary", description = "Retrieves rating count, average and distribution by service or therapist ID")
+    public ResponseEntity<RatingSummaryDto> getRatingSummary(@RequestParam(required = false) Long serviceId,
+                                                             @RequestParam(required = false) Long therapistId) {
+        if (serviceId != null) {
+            return ResponseEntity.ok(feedbackService.getServiceRatingSummary(serviceId));
+        } else if (therapistId != null) {
+            return ResponseEntity.ok(feedbackService.getTherapistRatingSummary(therapistId));
         }
         return ResponseEntity.badRequest().build();
     }
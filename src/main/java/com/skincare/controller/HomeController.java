@@ -1,42 +1,48 @@
 
 package com.skincare.controller;
 
+import com.skincare.cache.RenderedResponseCache;
 import com.skincare.service.HomeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Map;
-
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 @Tag(name = "Home", description = "Home page and general information APIs")
 public class HomeController {
     private final HomeService homeService;
+    private final RenderedResponseCache responseCache;
 
-    @GetMapping("/home")
+    @GetMapping(value = "/home", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Get homepage information", description = "Retrieves introduction, services, therapists, blog and news for homepage")
-    public ResponseEntity<Map<String, Object>> getHomePageInfo() {
-        Map<String, Object> homeData = homeService.getHomePageData();
-        return ResponseEntity.ok(homeData);
+    public ResponseEntity<byte[]> getHomePageInfo(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCache.serve(homeService.getHomePage(), ifNoneMatch, acceptEncoding);
     }
 
-    @GetMapping("/schedule")
+    @GetMapping(value = "/schedule", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Get center schedule", description = "Retrieves the center's operating schedule")
-    public ResponseEntity<Map<String, Object>> getSchedule() {
-        Map<String, Object> schedule = homeService.getSchedule();
-        return ResponseEntity.ok(schedule);
+    public ResponseEntity<byte[]> getSchedule(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCache.serve(homeService.getSchedulePage(), ifNoneMatch, acceptEncoding);
     }
 
-    @GetMapping("/payment-policy")
+    @GetMapping(value = "/payment-policy", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Get payment policy", description = "Retrieves the center's payment and cancellation policy")
-    public ResponseEntity<Map<String, Object>> getPaymentPolicy() {
-        Map<String, Object> policy = homeService.getPaymentPolicy();
-        return ResponseEntity.ok(policy);
+    public ResponseEntity<byte[]> getPaymentPolicy(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCache.serve(homeService.getPaymentPolicyPage(), ifNoneMatch, acceptEncoding);
     }
 }
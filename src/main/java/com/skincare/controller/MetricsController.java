@@ -0,0 +1,74 @@
+package com.skincare.controller;
+
+import com.skincare.cache.CatalogCache;
+import com.skincare.cache.RecommendationCache;
+import com.skincare.index.ServiceSimilarityIndex;
+import com.skincare.security.jwt.TokenDenylist;
+import com.skincare.security.services.UserDetailsCache;
+import com.skincare.service.RatingAggregateService;
+import com.skincare.service.SkinTestWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+@Tag(name = "Metrics", description = "In-process cache and index metrics")
+public class MetricsController {
+    private final CatalogCache catalogCache;
+    private final ServiceSimilarityIndex similarityIndex;
+    private final RecommendationCache recommendationCache;
+    private final SkinTestWriter skinTestWriter;
+    private final RatingAggregateService ratingAggregateService;
+    private final UserDetailsCache userDetailsCache;
+    private final TokenDenylist tokenDenylist;
+
+    @GetMapping("/catalog")
+    @Operation(summary = "Get catalog cache metrics", description = "Retrieves hit, miss and rebuild counters of the service and therapist catalog cache")
+    public ResponseEntity<Map<String, Object>> getCatalogMetrics() {
+        return ResponseEntity.ok(catalogCache.metrics());
+    }
+
+    @GetMapping("/similarity")
+    @Operation(summary = "Get similarity model metrics", description = "Retrieves the size and last rebuild wall time of the service similarity model")
+    public ResponseEntity<Map<String, Object>> getSimilarityMetrics() {
+        return ResponseEntity.ok(similarityIndex.metrics());
+    }
+
+    @GetMapping("/recommendations")
+    @Operation(summary = "Get recommendation cache metrics", description = "Retrieves hit ratio and size of the skin-test recommendation cache")
+    public ResponseEntity<Map<String, Object>> getRecommendationMetrics() {
+        return ResponseEntity.ok(recommendationCache.metrics());
+    }
+
+    @GetMapping("/skin-tests")
+    @Operation(summary = "Get skin test writer metrics", description = "Retrieves queue depth, batch size and throughput of the skin test write-behind")
+    public ResponseEntity<Map<String, Object>> getSkinTestWriterMetrics() {
+        return ResponseEntity.ok(skinTestWriter.metrics());
+    }
+
+    @GetMapping("/ratings")
+    @Operation(summary = "Get rating aggregate metrics", description = "Retrieves the number of rating aggregates, pending writes and flushes")
+    public ResponseEntity<Map<String, Object>> getRatingMetrics() {
+        return ResponseEntity.ok(ratingAggregateService.metrics());
+    }
+
+    @GetMapping("/users")
+    @Operation(summary = "Get user details cache metrics", description = "Retrieves hit ratio, load latency and evictions of the authentication user details cache")
+    public ResponseEntity<Map<String, Object>> getUserCacheMetrics() {
+        return ResponseEntity.ok(userDetailsCache.metrics());
+    }
+
+    @GetMapping("/revocations")
+    @Operation(summary = "Get token revocation metrics", description = "Retrieves the size of the token denylist and how often its Bloom filter let a check through")
+    public ResponseEntity<Map<String, Object>> getRevocationMetrics() {
+        return ResponseEntity.ok(tokenDenylist.metrics());
+    }
+}
@@ -27,6 +27,21 @@ public class ServiceController {
         return ResponseEntity.ok(services);
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search services", description = "Searches service names and descriptions by keyword, best matches first")
+    public ResponseEntity<List<ServiceDto>> searchServices(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "20") int limit) {
+        List<ServiceDto> services = serviceService.searchServices(q, limit);
+        return ResponseEntity.ok(services);
+    }
+
+    @GetMapping("/top")
+    @Operation(summary = "Get top rated services", description = "Retrieves the services with the best smoothed customer rating, best first")
+    public ResponseEntity<List<ServiceDto>> getTopRatedServices(@RequestParam(defaultValue = "10") int limit) {
+        List<ServiceDto> services = serviceService.getTopRatedServices(limit);
+        return ResponseEntity.ok(services);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get service by ID", description = "Retrieves a specific service by its ID")
     public ResponseEntity<ServiceDto> getServiceById(@PathVariable Long id) {
@@ -34,6 +49,14 @@ public class ServiceController {
         return ResponseEntity.ok(service);
     }
 
+    @GetMapping("/{id}/also-booked")
+    @Operation(summary = "Get related services", description = "Retrieves the services rated most alike by customers who also rated this service")
+    public ResponseEntity<List<ServiceDto>> getAlsoBookedServices(@PathVariable Long id,
+                                                                  @RequestParam(defaultValue = "5") int limit) {
+        List<ServiceDto> services = serviceService.getAlsoBookedServices(id, limit);
+        return ResponseEntity.ok(services);
+    }
+
     @PostMapping
     @Operation(summary = "Create new service", description = "Creates a new service entry")
     public ResponseEntity<ServiceDto> createService(@Valid @RequestBody ServiceDto serviceDto) {
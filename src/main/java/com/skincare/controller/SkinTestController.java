@@ -1,20 +1,24 @@
 
 package com.skincare.controller;
 
+import com.skincare.dto.BulkSkinTestResultDto;
 import com.skincare.dto.ServiceDto;
 import com.skincare.dto.SkinTestDto;
 import com.skincare.service.SkinTestService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -27,8 +31,15 @@ public class SkinTestController {
     @PostMapping
     @Operation(summary = "Submit skin test", description = "Submits skin test data and returns recommended services")
     public ResponseEntity<List<ServiceDto>> submitSkinTest(@Valid @RequestBody SkinTestDto skinTestDto) {
-        SkinTestDto savedTest = skinTestService.createSkinTest(skinTestDto);
+        skinTestService.createSkinTest(skinTestDto);
         List<ServiceDto> recommendedServices = skinTestService.getRecommendedServices(skinTestDto);
         return ResponseEntity.status(HttpStatus.CREATED).body(recommendedServices);
     }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Import skin tests in bulk", description = "Imports skin tests from a JSON array or newline-delimited JSON and reports the result per record")
+    public ResponseEntity<List<BulkSkinTestResultDto>> importSkinTests(HttpServletRequest request) throws IOException {
+        List<BulkSkinTestResultDto> results = skinTestService.importSkinTests(request.getInputStream());
+        return ResponseEntity.ok(results);
+    }
 }
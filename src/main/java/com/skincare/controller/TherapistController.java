@@ -27,6 +27,13 @@ public class TherapistController {
         return ResponseEntity.ok(therapists);
     }
 
+    @GetMapping("/top")
+    @Operation(summary = "Get top rated therapists", description = "Retrieves the therapists with the best smoothed customer rating, best first")
+    public ResponseEntity<List<TherapistDto>> getTopRatedTherapists(@RequestParam(defaultValue = "10") int limit) {
+        List<TherapistDto> therapists = therapistService.getTopRatedTherapists(limit);
+        return ResponseEntity.ok(therapists);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get therapist by ID", description = "Retrieves a specific therapist by their ID")
     public ResponseEntity<TherapistDto> getTherapistById(@PathVariable Long id) {
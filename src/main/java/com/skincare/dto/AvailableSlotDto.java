@@ -0,0 +1,20 @@
+package com.skincare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailableSlotDto {
+    private Long therapistId;
+    
+    private LocalDateTime startTime;
+    
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,37 @@
+package com.skincare.dto;
+
+import com.skincare.model.Booking.BookingStatus;
+import com.skincare.model.Booking.PaymentMethod;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingExportDto {
+    private Long id;
+    
+    private LocalDateTime appointmentTime;
+    
+    private BookingStatus status;
+    
+    private Long customerId;
+    
+    private Long serviceId;
+    
+    private String serviceName;
+    
+    private Long therapistId;
+    
+    private BigDecimal amount;
+    
+    private Boolean isPaid;
+    
+    private PaymentMethod paymentMethod;
+    
+    private LocalDateTime paymentTime;
+}
@@ -0,0 +1,21 @@
+package com.skincare.dto;
+
+import com.skincare.model.Booking.PaymentMethod;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookingRequest {
+    @NotEmpty(message = "Booking IDs are required")
+    private List<Long> bookingIds;
+    
+    private PaymentMethod paymentMethod;
+}
@@ -0,0 +1,21 @@
+package com.skincare.dto;
+
+import com.skincare.model.Booking.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkBookingResultDto {
+    private Long bookingId;
+    
+    private boolean success;
+    
+    private BookingStatus status;
+    
+    private String message;
+}
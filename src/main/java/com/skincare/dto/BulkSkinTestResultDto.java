@@ -0,0 +1,18 @@
+package com.skincare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkSkinTestResultDto {
+    private int index;
+    
+    private boolean success;
+    
+    private String message;
+}
@@ -0,0 +1,18 @@
+package com.skincare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedbackPageDto {
+    private List<FeedbackDto> items;
+    
+    private String nextCursor;
+}
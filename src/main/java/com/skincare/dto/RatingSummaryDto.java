@@ -0,0 +1,20 @@
+package com.skincare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingSummaryDto {
+    private long ratingCount;
+    
+    private double averageRating;
+    
+    private Map<Integer, Long> distribution;
+}
@@ -1,6 +1,7 @@
 
 package com.skincare.dto;
 
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,8 +16,10 @@ public class SkinTestDto {
     
     private Long customerId;
     
+    @Size(max = 255, message = "Skin type must be at most 255 characters")
     private String skinType;
     
+    @Size(max = 255, message = "Skin concerns must be at most 255 characters")
     private String skinConcerns;
     
     private Integer oiliness;
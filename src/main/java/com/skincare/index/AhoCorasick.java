@@ -0,0 +1,131 @@
+package com.skincare.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable Aho-Corasick automaton: reports every occurrence of any of its patterns in one pass over a text.
+ * Transitions are kept as sorted label arrays per state, which stays compact for large alphabets.
+ */
+final class AhoCorasick {
+    private static final int[] NONE = new int[0];
+
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    private final int[][] outputs;
+
+    private AhoCorasick(char[][] labels, int[][] targets, int[] fail, int[][] outputs) {
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Pattern i of the list is reported as i.
+     */
+    static AhoCorasick compile(List<String> patterns) {
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> own = new ArrayList<>();
+        children.add(new TreeMap<>());
+        own.add(new ArrayList<>());
+
+        for (int i = 0; i < patterns.size(); i++) {
+            int state = 0;
+            for (char c : patterns.get(i).toCharArray()) {
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    own.add(new ArrayList<>());
+                    children.get(state).put(c, next);
+                }
+                state = next;
+            }
+            own.get(state).add(i);
+        }
+
+        int states = children.size();
+        char[][] labels = new char[states][];
+        int[][] targets = new int[states][];
+        for (int state = 0; state < states; state++) {
+            Map<Character, Integer> edges = children.get(state);
+            labels[state] = new char[edges.size()];
+            targets[state] = new int[edges.size()];
+            int e = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                labels[state][e] = edge.getKey();
+                targets[state][e++] = edge.getValue();
+            }
+        }
+
+        // Breadth-first, so the fail state of every state is finished before the state itself
+        int[] fail = new int[states];
+        int[][] outputs = new int[states][];
+        outputs[0] = toArray(own.get(0));
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            outputs[child] = toArray(own.get(child));
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int e = 0; e < labels[state].length; e++) {
+                char c = labels[state][e];
+                int child = targets[state][e];
+                int f = fail[state];
+                int next;
+                while ((next = step(labels, targets, f, c)) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[child] = next >= 0 ? next : 0;
+                outputs[child] = merge(toArray(own.get(child)), outputs[fail[child]]);
+                queue.add(child);
+            }
+        }
+        return new AhoCorasick(labels, targets, fail, outputs);
+    }
+
+    void scan(CharSequence text, IntConsumer onMatch) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = step(labels, targets, state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = next >= 0 ? next : 0;
+            for (int pattern : outputs[state]) {
+                onMatch.accept(pattern);
+            }
+        }
+    }
+
+    private static int step(char[][] labels, int[][] targets, int state, char c) {
+        int e = Arrays.binarySearch(labels[state], c);
+        return e >= 0 ? targets[state][e] : -1;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.isEmpty() ? NONE : values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] merged = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, merged, a.length, b.length);
+        return merged;
+    }
+}
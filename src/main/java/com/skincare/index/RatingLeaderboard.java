@@ -0,0 +1,112 @@
+package com.skincare.index;
+
+import com.skincare.model.RatingAggregate.SubjectType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Services and therapists ordered by Bayesian-smoothed rating: the ratings are averaged together with a
+ * fixed number of prior ratings at the prior mean, so a single five-star review does not top the board.
+ * The prior is fixed rather than the live mean, so a new rating only ever moves its own subject and the
+ * board can be kept sorted by repositioning that one entry.
+ */
+@Component
+public class RatingLeaderboard {
+    public static final int MAX_RESULTS = 100;
+
+    private final double priorMean;
+    private final double priorWeight;
+    private final Map<SubjectType, Board> boards = new EnumMap<>(SubjectType.class);
+
+    public RatingLeaderboard(@Value("${skincare.app.leaderboard.priorMean:3.5}") double priorMean,
+                             @Value("${skincare.app.leaderboard.priorWeight:5}") double priorWeight) {
+        this.priorMean = priorMean;
+        this.priorWeight = priorWeight;
+        for (SubjectType type : SubjectType.values()) {
+            boards.put(type, new Board());
+        }
+    }
+
+    /**
+     * Moves the subject to the position of its current histogram of 1-5 star counts. The histogram is read
+     * inside the per-subject update, so of racing updates the last one always sees the newest counts.
+     */
+    public void reposition(SubjectType type, Long id, Supplier<long[]> histogram) {
+        Board board = boards.get(type);
+        board.positions.compute(id, (key, old) -> {
+            long count = 0;
+            long sum = 0;
+            long[] stars = histogram.get();
+            for (int i = 0; i < stars.length; i++) {
+                count += stars[i];
+                sum += (i + 1) * stars[i];
+            }
+            Rank rank = new Rank((priorMean * priorWeight + sum) / (priorWeight + count), count, id);
+            // Added before the old one is removed, so readers may see the subject twice but never miss it
+            board.ranking.add(rank);
+            if (old != null && !old.equals(rank)) {
+                board.ranking.remove(old);
+            }
+            return rank;
+        });
+    }
+
+    /**
+     * Takes the subject off the board, for subjects that no longer have any ratings.
+     */
+    public void remove(SubjectType type, Long id) {
+        Board board = boards.get(type);
+        board.positions.computeIfPresent(id, (key, old) -> {
+            board.ranking.remove(old);
+            return null;
+        });
+    }
+
+    /**
+     * Ids of the best rated subjects that pass the filter, best first. The filter lets callers skip subjects
+     * that no longer exist without coming up short.
+     */
+    public List<Long> top(SubjectType type, int limit, Predicate<Long> include) {
+        int k = Math.min(limit, MAX_RESULTS);
+        List<Long> ids = new ArrayList<>(Math.max(k, 0));
+        Set<Long> seen = new HashSet<>();
+        for (Rank rank : boards.get(type).ranking) {
+            if (ids.size() >= k) {
+                break;
+            }
+            if (seen.add(rank.id()) && include.test(rank.id())) {
+                ids.add(rank.id());
+            }
+        }
+        return ids;
+    }
+
+    private static final class Board {
+        private final ConcurrentSkipListSet<Rank> ranking = new ConcurrentSkipListSet<>();
+        private final Map<Long, Rank> positions = new ConcurrentHashMap<>();
+    }
+
+    // Higher score first, then more ratings, then lower id, so every subject has exactly one place
+    private record Rank(double score, long count, long id) implements Comparable<Rank> {
+        @Override
+        public int compareTo(Rank other) {
+            int byScore = Double.compare(other.score, score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            int byCount = Long.compare(other.count, count);
+            return byCount != 0 ? byCount : Long.compare(id, other.id);
+        }
+    }
+}
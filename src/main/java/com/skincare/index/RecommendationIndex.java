@@ -0,0 +1,228 @@
+package com.skincare.index;
+
+import com.skincare.cache.CatalogCache;
+import com.skincare.dto.ServiceDto;
+import com.skincare.dto.SkinTestDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ranks services for a skin test. Every service gets a vector over the skin test's numeric measures, derived
+ * from the vocabulary of its name and description, and the words it shares with the test's free text add a
+ * bonus. Both are compiled once per catalog version: the vectors as one array per feature and the keywords
+ * into an automaton, so a skin test costs a single pass over its own text plus one scoring loop.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecommendationIndex {
+    public static final int SCALE_MAX = 10;
+
+    private static final int OILINESS = 0;
+    private static final int SENSITIVITY = 1;
+    private static final int HYDRATION = 2;
+    private static final int PIGMENTATION = 3;
+    private static final int WRINKLES = 4;
+    private static final int FEATURES = 5;
+
+    private static final float KEYWORD_WEIGHT = 0.5f;
+
+    // Words too common in service texts to say anything about a skin test
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "its", "of", "on",
+            "or", "our", "that", "the", "this", "to", "with", "you", "your", "skin");
+
+    private static final Map<String, Integer> FEATURE_WORDS = featureWords();
+
+    private final CatalogCache catalogCache;
+    private final AtomicReference<Compiled> compiled = new AtomicReference<>();
+
+    /**
+     * The best scoring services for the skin test, best first. Services scoring zero are left out. The services
+     * are the catalog snapshot's own frozen DTOs, so they can be cached and shared as they are.
+     */
+    public List<ServiceDto> recommend(SkinTestDto skinTest, int limit) {
+        Compiled index = current();
+        if (limit <= 0 || index.services().isEmpty()) {
+            return List.of();
+        }
+
+        float[] profile = new float[FEATURES];
+        profile[OILINESS] = level(skinTest.getOiliness());
+        profile[SENSITIVITY] = level(skinTest.getSensitivity());
+        profile[HYDRATION] = skinTest.getHydration() != null ? 1f - level(skinTest.getHydration()) : 0f;
+        profile[PIGMENTATION] = level(skinTest.getPigmentation());
+        profile[WRINKLES] = level(skinTest.getWrinkles());
+
+        int[][] hits = keywordHits(index, skinTest.getSkinType(), skinTest.getSkinConcerns());
+        int[] hitServices = hits[0];
+        int[] hitCounts = hits[1];
+
+        // Min-heap on score holding the best k seen so far; the root is the one to evict next
+        int k = Math.min(limit, index.services().size());
+        int[] heapServices = new int[k];
+        float[] heapScores = new float[k];
+        int size = 0;
+
+        float[][] features = index.features();
+        int hit = 0;
+        for (int service = 0; service < index.services().size(); service++) {
+            float score = profile[OILINESS] * features[OILINESS][service]
+                    + profile[SENSITIVITY] * features[SENSITIVITY][service]
+                    + profile[HYDRATION] * features[HYDRATION][service]
+                    + profile[PIGMENTATION] * features[PIGMENTATION][service]
+                    + profile[WRINKLES] * features[WRINKLES][service];
+            if (hit < hitServices.length && hitServices[hit] == service) {
+                score += KEYWORD_WEIGHT * hitCounts[hit++];
+            }
+            if (score <= 0f) {
+                continue;
+            }
+            if (size < k) {
+                heapServices[size] = service;
+                heapScores[size] = score;
+                TopK.siftUp(heapServices, heapScores, size++);
+            } else if (score > heapScores[0]) {
+                heapServices[0] = service;
+                heapScores[0] = score;
+                TopK.siftDown(heapServices, heapScores, size);
+            }
+        }
+
+        // Draining the min-heap yields the worst first, so fill the result from the back
+        ServiceDto[] ranked = new ServiceDto[size];
+        while (size > 0) {
+            ranked[--size] = index.services().get(heapServices[0]);
+            heapServices[0] = heapServices[size];
+            heapScores[0] = heapScores[size];
+            TopK.siftDown(heapServices, heapScores, size);
+        }
+        return Arrays.asList(ranked);
+    }
+
+    // Services sharing whole words with the texts as parallel arrays of service ordinals and shared word counts
+    private static int[][] keywordHits(Compiled index, String... texts) {
+        StringBuilder normalized = new StringBuilder(" ");
+        for (String text : texts) {
+            for (String token : ServiceSearchIndex.tokenize(text)) {
+                normalized.append(token).append(' ');
+            }
+        }
+
+        BitSet matchedKeywords = new BitSet();
+        index.matcher().scan(normalized, matchedKeywords::set);
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int keyword = matchedKeywords.nextSetBit(0); keyword >= 0; keyword = matchedKeywords.nextSetBit(keyword + 1)) {
+            for (int service : index.servicesByKeyword()[keyword]) {
+                counts.merge(service, 1, Integer::sum);
+            }
+        }
+
+        int[] services = counts.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] hitCounts = new int[services.length];
+        for (int i = 0; i < services.length; i++) {
+            hitCounts[i] = counts.get(services[i]);
+        }
+        return new int[][] {services, hitCounts};
+    }
+
+    private Compiled current() {
+        CatalogCache.CatalogSnapshot catalog = catalogCache.snapshot();
+        Compiled index = compiled.get();
+        if (index != null && index.version() >= catalog.version()) {
+            return index;
+        }
+        Compiled fresh = compile(catalog);
+        return compiled.accumulateAndGet(fresh, (existing, next) ->
+                existing == null || next.version() >= existing.version() ? next : existing);
+    }
+
+    private static Compiled compile(CatalogCache.CatalogSnapshot catalog) {
+        List<ServiceDto> services = catalog.services();
+        float[][] features = new float[FEATURES][services.size()];
+        Map<String, List<Integer>> servicesByKeyword = new LinkedHashMap<>();
+        for (int service = 0; service < services.size(); service++) {
+            Set<String> keywords = ServiceSearchIndex.tokenize(services.get(service).getName());
+            keywords.addAll(ServiceSearchIndex.tokenize(services.get(service).getDescription()));
+            for (String keyword : keywords) {
+                if (!STOPWORDS.contains(keyword)) {
+                    servicesByKeyword.computeIfAbsent(keyword, k -> new ArrayList<>()).add(service);
+                }
+                Integer feature = FEATURE_WORDS.get(keyword);
+                if (feature != null) {
+                    features[feature][service]++;
+                }
+            }
+            normalize(features, service);
+        }
+
+        // Keywords are padded with the separator so only whole words match
+        List<String> patterns = new ArrayList<>(servicesByKeyword.size());
+        int[][] postings = new int[servicesByKeyword.size()][];
+        for (Map.Entry<String, List<Integer>> entry : servicesByKeyword.entrySet()) {
+            postings[patterns.size()] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+            patterns.add(" " + entry.getKey() + " ");
+        }
+        return new Compiled(catalog.version(), AhoCorasick.compile(patterns), postings, features, services);
+    }
+
+    // Unit length, so a long description naming many concerns does not outscore a focused one
+    private static void normalize(float[][] features, int service) {
+        float norm = 0f;
+        for (float[] feature : features) {
+            norm += feature[service] * feature[service];
+        }
+        if (norm > 0f) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (float[] feature : features) {
+                feature[service] *= scale;
+            }
+        }
+    }
+
+    private static float level(Integer value) {
+        if (value == null) {
+            return 0f;
+        }
+        return Math.max(0, Math.min(SCALE_MAX, value)) / (float) SCALE_MAX;
+    }
+
+    private static Map<String, Integer> featureWords() {
+        Map<String, Integer> words = new HashMap<>();
+        for (String word : List.of("oily", "oil", "sebum", "acne", "pores", "pore", "blemish", "blemishes",
+                "breakouts", "mattifying", "clarifying", "purifying")) {
+            words.put(word, OILINESS);
+        }
+        for (String word : List.of("sensitive", "sensitivity", "soothing", "calming", "redness", "gentle",
+                "irritation", "rosacea")) {
+            words.put(word, SENSITIVITY);
+        }
+        for (String word : List.of("dry", "dryness", "dehydrated", "hydrating", "hydration", "moisture",
+                "moisturizing", "nourishing", "plumping")) {
+            words.put(word, HYDRATION);
+        }
+        for (String word : List.of("pigmentation", "hyperpigmentation", "brightening", "spots", "melasma",
+                "tone", "glow", "radiance", "dull")) {
+            words.put(word, PIGMENTATION);
+        }
+        for (String word : List.of("wrinkles", "lines", "aging", "ageing", "firming", "lifting", "collagen",
+                "elasticity", "rejuvenating")) {
+            words.put(word, WRINKLES);
+        }
+        return Map.copyOf(words);
+    }
+
+    private record Compiled(long version, AhoCorasick matcher, int[][] servicesByKeyword, float[][] features,
+                            List<ServiceDto> services) {
+    }
+}
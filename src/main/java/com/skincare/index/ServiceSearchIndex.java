@@ -0,0 +1,256 @@
+package com.skincare.index;
+
+import com.skincare.dto.ServiceDto;
+import com.skincare.mapper.ServiceMapper;
+import com.skincare.repository.ServiceRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keyword search over service names and descriptions. Terms are case-folded words; every term is also
+ * split into trigrams so a query word can match inside a longer word ("hydra" finds "dehydrated").
+ */
+@Component
+@RequiredArgsConstructor
+public class ServiceSearchIndex {
+    public static final int MAX_RESULTS = 100;
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int GRAM = 3;
+    private static final double INFIX_FACTOR = 0.5;
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceSearchIndex.class);
+
+    private final ServiceRepository serviceRepository;
+    private final ServiceMapper serviceMapper;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Map<Long, Integer>> termPostings = new HashMap<>();
+    private final Map<String, Set<String>> gramTerms = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ServiceDto> services = serviceMapper.toDtoList(serviceRepository.findAll());
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            termPostings.clear();
+            gramTerms.clear();
+            services.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Service search index rebuilt with {} services and {} terms", services.size(), termPostings.size());
+    }
+
+    /**
+     * Adds or replaces the service, deferred until commit when called inside a transaction.
+     */
+    public void index(ServiceDto service) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(service.getId());
+                add(service);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Drops the service, deferred until commit when called inside a transaction.
+     */
+    public void delete(Long serviceId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(serviceId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Services matching any query word, best first. A word found as a whole term scores higher than one
+     * found inside a term, name hits count more than description hits, and rare words more than common ones.
+     */
+    public List<ServiceDto> search(String query, int limit) {
+        Set<String> words = tokenize(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = new HashMap<>();
+            Map<Long, Integer> matchedWords = new HashMap<>();
+            for (String word : words) {
+                Map<Long, Double> wordScores = score(word);
+                wordScores.forEach((id, score) -> {
+                    scores.merge(id, score, Double::sum);
+                    matchedWords.merge(id, 1, Integer::sum);
+                });
+            }
+
+            // Documents matching more of the query rank first, then by score
+            Comparator<Long> ranking = Comparator.<Long>comparingInt(matchedWords::get).reversed()
+                    .thenComparing(Comparator.<Long>comparingDouble(scores::get).reversed())
+                    .thenComparing(Comparator.naturalOrder());
+            return scores.keySet().stream()
+                    .sorted(ranking)
+                    .limit(Math.min(limit, MAX_RESULTS))
+                    .map(id -> documents.get(id).service())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> score(String word) {
+        Map<Long, Double> scores = new HashMap<>();
+        Map<Long, Integer> exact = termPostings.get(word);
+        if (exact != null) {
+            double idf = idf(exact.size());
+            exact.forEach((id, weight) -> scores.merge(id, weight * idf, Double::sum));
+        }
+        if (word.length() < GRAM) {
+            return scores;
+        }
+
+        Map<Long, Integer> infix = new HashMap<>();
+        for (String term : infixTerms(word)) {
+            termPostings.get(term).forEach((id, weight) -> infix.merge(id, weight, Integer::sum));
+        }
+        double idf = idf(infix.size());
+        infix.forEach((id, weight) -> scores.merge(id, weight * idf * INFIX_FACTOR, Double::sum));
+        return scores;
+    }
+
+    // Terms that contain the word without being it: intersect the trigram term sets, then verify
+    private Set<String> infixTerms(String word) {
+        List<Set<String>> gramSets = new ArrayList<>();
+        for (String gram : grams(word)) {
+            Set<String> terms = gramTerms.get(gram);
+            if (terms == null) {
+                return Set.of();
+            }
+            gramSets.add(terms);
+        }
+        gramSets.sort(Comparator.comparingInt(Set::size));
+
+        Set<String> candidates = new HashSet<>(gramSets.get(0));
+        for (int i = 1; i < gramSets.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(gramSets.get(i));
+        }
+        candidates.removeIf(term -> term.equals(word) || !term.contains(word));
+        return candidates;
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1.0 + (double) (documents.size() + 1) / (documentFrequency + 1));
+    }
+
+    private void add(ServiceDto service) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String term : tokenize(service.getName())) {
+            terms.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(service.getDescription())) {
+            terms.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+
+        documents.put(service.getId(), new Document(service, terms.keySet()));
+        terms.forEach((term, weight) -> {
+            Map<Long, Integer> postings = termPostings.computeIfAbsent(term, t -> new HashMap<>());
+            if (postings.isEmpty()) {
+                for (String gram : grams(term)) {
+                    gramTerms.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+                }
+            }
+            postings.put(service.getId(), weight);
+        });
+    }
+
+    private void remove(Long serviceId) {
+        Document document = documents.remove(serviceId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<Long, Integer> postings = termPostings.get(term);
+            postings.remove(serviceId);
+            if (postings.isEmpty()) {
+                termPostings.remove(term);
+                for (String gram : grams(term)) {
+                    Set<String> terms = gramTerms.get(gram);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        gramTerms.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Distinct case-folded words of the text in order of appearance, the normalization every index shares.
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> grams(String term) {
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            grams.add(term.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record Document(ServiceDto service, Set<String> terms) {
+    }
+}
@@ -0,0 +1,233 @@
+package com.skincare.index;
+
+import com.skincare.repository.FeedbackRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Item-item similarity between services from customer feedback ratings. Each service is a sparse vector of
+ * the ratings its customers gave it; the cosine of two vectors says how alike their audiences rate them.
+ * The model is rebuilt periodically and only the best neighbours of every service are kept.
+ */
+@Component
+@RequiredArgsConstructor
+public class ServiceSimilarityIndex {
+    public static final int NEIGHBOURS = 20;
+
+    private static final int SPLIT_THRESHOLD = 64;
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceSimilarityIndex.class);
+
+    private final FeedbackRepository feedbackRepository;
+    private final AtomicReference<Model> model = new AtomicReference<>(Model.EMPTY);
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${skincare.app.similarity.rebuildIntervalMs:3600000}",
+            initialDelayString = "${skincare.app.similarity.rebuildIntervalMs:3600000}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        List<FeedbackRepository.CustomerServiceRating> ratings = feedbackRepository.findCustomerServiceRatings();
+
+        Map<Long, Integer> serviceOrdinals = new LinkedHashMap<>();
+        Map<Long, Integer> customerOrdinals = new HashMap<>();
+        for (FeedbackRepository.CustomerServiceRating rating : ratings) {
+            serviceOrdinals.putIfAbsent(rating.getServiceId(), serviceOrdinals.size());
+            customerOrdinals.putIfAbsent(rating.getCustomerId(), customerOrdinals.size());
+        }
+        int services = serviceOrdinals.size();
+        int customers = customerOrdinals.size();
+
+        // The rating matrix twice in compressed sparse rows: by service and by customer
+        int[] perService = new int[services + 1];
+        int[] perCustomer = new int[customers + 1];
+        for (FeedbackRepository.CustomerServiceRating rating : ratings) {
+            perService[serviceOrdinals.get(rating.getServiceId()) + 1]++;
+            perCustomer[customerOrdinals.get(rating.getCustomerId()) + 1]++;
+        }
+        Arrays.parallelPrefix(perService, Integer::sum);
+        Arrays.parallelPrefix(perCustomer, Integer::sum);
+
+        int[] serviceCustomers = new int[ratings.size()];
+        float[] serviceRatings = new float[ratings.size()];
+        int[] customerServices = new int[ratings.size()];
+        float[] customerRatings = new float[ratings.size()];
+        int[] serviceFill = Arrays.copyOf(perService, services);
+        int[] customerFill = Arrays.copyOf(perCustomer, customers);
+        float[] norms = new float[services];
+        for (FeedbackRepository.CustomerServiceRating rating : ratings) {
+            int service = serviceOrdinals.get(rating.getServiceId());
+            int customer = customerOrdinals.get(rating.getCustomerId());
+            float value = rating.getRating().floatValue();
+            serviceCustomers[serviceFill[service]] = customer;
+            serviceRatings[serviceFill[service]++] = value;
+            customerServices[customerFill[customer]] = service;
+            customerRatings[customerFill[customer]++] = value;
+            norms[service] += value * value;
+        }
+        for (int service = 0; service < services; service++) {
+            norms[service] = (float) Math.sqrt(norms[service]);
+        }
+
+        int[][] neighbours = new int[services][];
+        float[][] similarities = new float[services][];
+        ForkJoinPool.commonPool().invoke(new SimilarityTask(0, services, perService, serviceCustomers, serviceRatings,
+                perCustomer, customerServices, customerRatings, norms, neighbours, similarities));
+
+        long[] serviceIds = new long[services];
+        serviceOrdinals.forEach((id, ordinal) -> serviceIds[ordinal] = id);
+        long wallNanos = System.nanoTime() - started;
+        model.set(new Model(model.get().version() + 1, serviceOrdinals, serviceIds, neighbours, similarities,
+                ratings.size(), wallNanos));
+        logger.info("Service similarity model rebuilt from {} ratings of {} services in {} ms",
+                ratings.size(), services, wallNanos / 1_000_000);
+    }
+
+    /**
+     * Ids of the services most similar to the given one, most similar first.
+     */
+    public List<Long> neighbours(Long serviceId, int limit) {
+        Model current = model.get();
+        Integer service = current.serviceOrdinals().get(serviceId);
+        if (service == null || limit <= 0) {
+            return List.of();
+        }
+        int[] neighbours = current.neighbours()[service];
+        List<Long> ids = new ArrayList<>(Math.min(limit, neighbours.length));
+        for (int i = 0; i < neighbours.length && i < limit; i++) {
+            ids.add(current.serviceIds()[neighbours[i]]);
+        }
+        return ids;
+    }
+
+    /**
+     * Increases with every rebuild, so results derived from the model can tell when they are outdated.
+     */
+    public long version() {
+        return model.get().version();
+    }
+
+    public Map<String, Object> metrics() {
+        Model current = model.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("services", current.serviceIds().length);
+        metrics.put("ratings", current.ratings());
+        metrics.put("lastRebuildMillis", current.wallNanos() / 1_000_000.0);
+        return metrics;
+    }
+
+    /**
+     * Computes the neighbours of a range of services. Dot products are accumulated by walking from each
+     * service to its customers and on to their other services, so only co-rated pairs are ever visited.
+     */
+    private static final class SimilarityTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int[] perService;
+        private final int[] serviceCustomers;
+        private final float[] serviceRatings;
+        private final int[] perCustomer;
+        private final int[] customerServices;
+        private final float[] customerRatings;
+        private final float[] norms;
+        private final int[][] neighbours;
+        private final float[][] similarities;
+
+        private SimilarityTask(int from, int to, int[] perService, int[] serviceCustomers, float[] serviceRatings,
+                               int[] perCustomer, int[] customerServices, float[] customerRatings, float[] norms,
+                               int[][] neighbours, float[][] similarities) {
+            this.from = from;
+            this.to = to;
+            this.perService = perService;
+            this.serviceCustomers = serviceCustomers;
+            this.serviceRatings = serviceRatings;
+            this.perCustomer = perCustomer;
+            this.customerServices = customerServices;
+            this.customerRatings = customerRatings;
+            this.norms = norms;
+            this.neighbours = neighbours;
+            this.similarities = similarities;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(split(from, middle), split(middle, to));
+                return;
+            }
+
+            float[] dots = new float[norms.length];
+            int[] touched = new int[norms.length];
+            int[] heapServices = new int[NEIGHBOURS];
+            float[] heapScores = new float[NEIGHBOURS];
+            for (int service = from; service < to; service++) {
+                int touchedCount = 0;
+                for (int r = perService[service]; r < perService[service + 1]; r++) {
+                    int customer = serviceCustomers[r];
+                    float rating = serviceRatings[r];
+                    for (int c = perCustomer[customer]; c < perCustomer[customer + 1]; c++) {
+                        int other = customerServices[c];
+                        if (other == service) {
+                            continue;
+                        }
+                        if (dots[other] == 0f) {
+                            touched[touchedCount++] = other;
+                        }
+                        dots[other] += rating * customerRatings[c];
+                    }
+                }
+
+                int size = 0;
+                for (int t = 0; t < touchedCount; t++) {
+                    int other = touched[t];
+                    float similarity = dots[other] / (norms[service] * norms[other]);
+                    dots[other] = 0f;
+                    if (size < NEIGHBOURS) {
+                        heapServices[size] = other;
+                        heapScores[size] = similarity;
+                        TopK.siftUp(heapServices, heapScores, size++);
+                    } else if (similarity > heapScores[0]) {
+                        heapServices[0] = other;
+                        heapScores[0] = similarity;
+                        TopK.siftDown(heapServices, heapScores, size);
+                    }
+                }
+
+                neighbours[service] = new int[size];
+                similarities[service] = new float[size];
+                while (size > 0) {
+                    neighbours[service][--size] = heapServices[0];
+                    similarities[service][size] = heapScores[0];
+                    heapServices[0] = heapServices[size];
+                    heapScores[0] = heapScores[size];
+                    TopK.siftDown(heapServices, heapScores, size);
+                }
+            }
+        }
+
+        private SimilarityTask split(int from, int to) {
+            return new SimilarityTask(from, to, perService, serviceCustomers, serviceRatings, perCustomer,
+                    customerServices, customerRatings, norms, neighbours, similarities);
+        }
+    }
+
+    private record Model(long version, Map<Long, Integer> serviceOrdinals, long[] serviceIds, int[][] neighbours,
+                         float[][] similarities, int ratings, long wallNanos) {
+        static final Model EMPTY = new Model(0, Map.of(), new long[0], new int[0][], new float[0][], 0, 0);
+    }
+}
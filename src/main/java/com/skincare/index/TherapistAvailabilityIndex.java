@@ -0,0 +1,248 @@
+package com.skincare.index;
+
+import com.skincare.exception.BookingConflictException;
+import com.skincare.model.Booking;
+import com.skincare.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class TherapistAvailabilityIndex {
+    public static final int DEFAULT_DURATION_MINUTES = 60;
+    public static final int QUANTUM_MINUTES = 15;
+    public static final int QUANTA_PER_DAY = 24 * 60 / QUANTUM_MINUTES;
+    public static final int WORDS_PER_DAY = (QUANTA_PER_DAY + 63) / 64;
+
+    private static final Logger logger = LoggerFactory.getLogger(TherapistAvailabilityIndex.class);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, TherapistCalendar> calendars = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        calendars.clear();
+        int loaded = 0;
+        for (BookingRepository.TherapistSlot slot : bookingRepository.findTherapistSlotsFrom(
+                LocalDateTime.now().minusDays(1), Booking.BookingStatus.CANCELLED)) {
+            LocalDateTime start = slot.getAppointmentTime();
+            calendar(slot.getTherapistId()).put(
+                    new Interval(slot.getBookingId(), start, start.plusMinutes(duration(slot.getDurationMinutes()))));
+            loaded++;
+        }
+        logger.info("Therapist availability index rebuilt with {} bookings for {} therapists", loaded, calendars.size());
+    }
+
+    public static int duration(Integer durationMinutes) {
+        return durationMinutes != null && durationMinutes > 0 ? durationMinutes : DEFAULT_DURATION_MINUTES;
+    }
+
+    /**
+     * Claims the slot for the booking or throws if it overlaps another booking of the same therapist.
+     * Inside a transaction the claim is undone again if the transaction rolls back.
+     */
+    public void reserve(Long bookingId, Long therapistId, LocalDateTime start, int durationMinutes) {
+        Interval interval = new Interval(bookingId, start, start.plusMinutes(durationMinutes));
+        TherapistCalendar calendar = calendar(therapistId);
+        Interval previous;
+        synchronized (calendar) {
+            previous = calendar.get(bookingId);
+            if (!calendar.tryReserve(interval)) {
+                throw new BookingConflictException("Therapist " + therapistId + " is not available at " + start);
+            }
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED && !calendar.restore(interval, previous)) {
+                        // The old slot was given away while this booking held the new one; a rebuild will
+                        // pick the booking up again from the database
+                        logger.warn("Could not restore slot {} - {} of booking {} for therapist {} after rollback",
+                                previous.start(), previous.end(), bookingId, therapistId);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Frees the booking's slot, deferred until commit when called inside a transaction.
+     */
+    public void release(Long bookingId, Long therapistId) {
+        if (therapistId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    calendar(therapistId).remove(bookingId);
+                }
+            });
+        } else {
+            calendar(therapistId).remove(bookingId);
+        }
+    }
+
+    /**
+     * Busy bitmap of one therapist's day, one bit per quantum (bit i covers minutes [i * 15, (i + 1) * 15)).
+     */
+    public long[] busyQuanta(Long therapistId, LocalDate day) {
+        TherapistCalendar calendar = calendars.get(therapistId);
+        return calendar != null ? calendar.busyQuanta(day) : new long[WORDS_PER_DAY];
+    }
+
+    private TherapistCalendar calendar(Long therapistId) {
+        return calendars.computeIfAbsent(therapistId, id -> new TherapistCalendar());
+    }
+
+    record Interval(Long bookingId, LocalDateTime start, LocalDateTime end) {
+        static final Comparator<Interval> ORDER = Comparator.comparing(Interval::start)
+                .thenComparing(Interval::bookingId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        boolean overlaps(Interval other) {
+            return start.isBefore(other.end) && other.start.isBefore(end);
+        }
+    }
+
+    static class TherapistCalendar {
+        // Non-overlapping by construction, so only the neighbours of a new interval can collide with it
+        private final TreeMap<Interval, Interval> byStart = new TreeMap<>(Interval.ORDER);
+        private final Map<Long, Interval> byBooking = new HashMap<>();
+        private final Map<LocalDate, long[]> busyByDay = new HashMap<>();
+        // Never shrinks, so it stays a safe bound on how far before a day an interval reaching into it can start
+        private Duration longest = Duration.ZERO;
+
+        synchronized boolean tryReserve(Interval interval) {
+            Interval existing = byBooking.get(interval.bookingId());
+            if (existing != null) {
+                byStart.remove(existing);
+            }
+
+            Map.Entry<Interval, Interval> before = byStart.floorEntry(interval);
+            Map.Entry<Interval, Interval> after = byStart.higherEntry(interval);
+            if ((before != null && before.getKey().overlaps(interval))
+                    || (after != null && after.getKey().overlaps(interval))) {
+                if (existing != null) {
+                    byStart.put(existing, existing);
+                }
+                return false;
+            }
+
+            pruneBefore(LocalDateTime.now().minusDays(1));
+            put(interval);
+            return true;
+        }
+
+        /**
+         * Undoes a rolled back reservation unless a later one has replaced it. The previous interval goes
+         * through the overlap check again, since its slot may have been reserved by another booking meanwhile.
+         */
+        synchronized boolean restore(Interval reserved, Interval previous) {
+            if (!reserved.equals(byBooking.get(reserved.bookingId()))) {
+                return true;
+            }
+            remove(reserved.bookingId());
+            return previous == null || tryReserve(previous);
+        }
+
+        synchronized Interval get(Long bookingId) {
+            return byBooking.get(bookingId);
+        }
+
+        synchronized void put(Interval interval) {
+            Interval previous = byBooking.put(interval.bookingId(), interval);
+            if (previous != null) {
+                byStart.remove(previous);
+            }
+            byStart.put(interval, interval);
+            Duration length = Duration.between(interval.start(), interval.end());
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+            if (previous != null) {
+                redrawDays(previous);
+            }
+            markBusy(interval);
+        }
+
+        synchronized void remove(Long bookingId) {
+            Interval interval = byBooking.remove(bookingId);
+            if (interval != null) {
+                byStart.remove(interval);
+                redrawDays(interval);
+            }
+        }
+
+        synchronized long[] busyQuanta(LocalDate day) {
+            long[] bits = busyByDay.get(day);
+            return bits != null ? bits.clone() : new long[WORDS_PER_DAY];
+        }
+
+        private void pruneBefore(LocalDateTime cutoff) {
+            while (!byStart.isEmpty() && byStart.firstKey().end().isBefore(cutoff)) {
+                byBooking.remove(byStart.pollFirstEntry().getKey().bookingId());
+            }
+            busyByDay.keySet().removeIf(day -> day.isBefore(cutoff.toLocalDate()));
+        }
+
+        private void markBusy(Interval interval) {
+            for (LocalDate day = interval.start().toLocalDate(); day.atStartOfDay().isBefore(interval.end());
+                 day = day.plusDays(1)) {
+                markBusy(interval, day);
+            }
+        }
+
+        // Paints only the part of the interval that falls on the given day
+        private void markBusy(Interval interval, LocalDate day) {
+            LocalDateTime dayStart = day.atStartOfDay();
+            LocalDateTime nextDayStart = day.plusDays(1).atStartOfDay();
+            if (!interval.start().isBefore(nextDayStart) || !interval.end().isAfter(dayStart)) {
+                return;
+            }
+            long[] bits = busyByDay.computeIfAbsent(day, d -> new long[WORDS_PER_DAY]);
+            int from = interval.start().isAfter(dayStart)
+                    ? interval.start().toLocalTime().toSecondOfDay() / 60 / QUANTUM_MINUTES : 0;
+            int to = interval.end().isBefore(nextDayStart) ? ceilQuantum(interval.end().toLocalTime()) : QUANTA_PER_DAY;
+            for (int q = from; q < to; q++) {
+                bits[q >> 6] |= 1L << (q & 63);
+            }
+        }
+
+        // Quanta can be shared by adjacent bookings, so clearing means repainting the day from what is left
+        private void redrawDays(Interval removed) {
+            for (LocalDate day = removed.start().toLocalDate(); day.atStartOfDay().isBefore(removed.end());
+                 day = day.plusDays(1)) {
+                busyByDay.remove(day);
+                Interval earliest = new Interval(null, day.atStartOfDay().minus(longest), day.atStartOfDay());
+                Interval dayEnd = new Interval(null, day.plusDays(1).atStartOfDay(), day.plusDays(1).atStartOfDay());
+                for (Interval interval : byStart.subMap(earliest, dayEnd).keySet()) {
+                    markBusy(interval, day);
+                }
+            }
+        }
+
+        private static int ceilQuantum(LocalTime time) {
+            int minutes = time.toSecondOfDay() / 60 + (time.toSecondOfDay() % 60 > 0 || time.getNano() > 0 ? 1 : 0);
+            return (minutes + QUANTUM_MINUTES - 1) / QUANTUM_MINUTES;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.skincare.index;
+
+/**
+ * Binary min-heap over parallel arrays of ids and scores, used to keep the k best scores without boxing.
+ * The root is the worst score kept so far, the one to evict next.
+ */
+final class TopK {
+    private TopK() {
+    }
+
+    static void siftUp(int[] ids, float[] scores, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) {
+                return;
+            }
+            swap(ids, scores, parent, i);
+            i = parent;
+        }
+    }
+
+    static void siftDown(int[] ids, float[] scores, int size) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(ids, scores, smallest, i);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] ids, float[] scores, int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -35,7 +35,9 @@ public abstract class BookingMapper {
     @Mappings({
         @Mapping(target = "customer", source = "customerId", qualifiedByName = "idToCustomer"),
         @Mapping(target = "service", source = "serviceId", qualifiedByName = "idToService"),
-        @Mapping(target = "therapist", source = "therapistId", qualifiedByName = "idToTherapist")
+        @Mapping(target = "therapist", source = "therapistId", qualifiedByName = "idToTherapist"),
+        @Mapping(target = "previousStatus", ignore = true),
+        @Mapping(target = "version", ignore = true)
     })
     public abstract Booking toEntity(BookingDto bookingDto);
 
@@ -44,16 +46,19 @@ public abstract class BookingMapper {
     @Mappings({
         @Mapping(target = "customer", source = "customerId", qualifiedByName = "idToCustomer"),
         @Mapping(target = "service", source = "serviceId", qualifiedByName = "idToService"),
-        @Mapping(target = "therapist", source = "therapistId", qualifiedByName = "idToTherapist")
+        @Mapping(target = "therapist", source = "therapistId", qualifiedByName = "idToTherapist"),
+        @Mapping(target = "previousStatus", ignore = true),
+        @Mapping(target = "version", ignore = true)
     })
     public abstract void updateEntityFromDto(BookingDto dto, @MappingTarget Booking entity);
 
+    // References are uninitialized proxies, callers validate the ids up front (see BookingService#createBooking)
     @Named("idToCustomer")
     Customer idToCustomer(Long id) {
         if (id == null) {
             return null;
         }
-        return customerRepository.findById(id).orElse(null);
+        return customerRepository.getReferenceById(id);
     }
 
     @Named("idToService")
@@ -61,7 +66,7 @@ public abstract class BookingMapper {
         if (id == null) {
             return null;
         }
-        return serviceRepository.findById(id).orElse(null);
+        return serviceRepository.getReferenceById(id);
     }
 
     @Named("idToTherapist")
@@ -69,6 +74,6 @@ public abstract class BookingMapper {
         if (id == null) {
             return null;
         }
-        return therapistRepository.findById(id).orElse(null);
+        return therapistRepository.getReferenceById(id);
     }
 }
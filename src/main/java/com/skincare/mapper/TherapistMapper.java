@@ -44,9 +44,9 @@ public abstract class TherapistMapper {
         if (ids == null) {
             return new HashSet<>();
         }
-        return ids.stream()
-                .map(id -> serviceRepository.findById(id).orElse(null))
-                .filter(service -> service != null)
-                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(serviceRepository.findAllById(ids));
     }
 }
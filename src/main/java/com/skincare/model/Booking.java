@@ -7,30 +7,34 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Table(name = "bookings")
 public class Booking {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "service_id", nullable = false)
     private Service service;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "therapist_id")
     private Therapist therapist;
 
@@ -40,6 +44,10 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
+    // Status before the last lifecycle write, recorded by that UPDATE so the rollups need no prior read
+    @Enumerated(EnumType.STRING)
+    private BookingStatus previousStatus;
+
     private LocalDateTime checkinTime;
     
     private LocalDateTime checkoutTime;
@@ -63,6 +71,12 @@ public class Booking {
 
     private LocalDateTime updatedAt;
 
+    // Bumped by every write. Lifecycle writes are guarded by the state they depend on instead (see
+    // BookingRepository#applyTransition), so only whole-entity saves of a stale copy are rejected by it
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -77,7 +91,20 @@ public class Booking {
     }
 
     public enum BookingStatus {
-        BOOKED, CHECKED_IN, IN_PROGRESS, COMPLETED, CANCELLED
+        BOOKED, CHECKED_IN, IN_PROGRESS, COMPLETED, CANCELLED;
+
+        public boolean canTransitionTo(BookingStatus next) {
+            return switch (this) {
+                case BOOKED -> next == CHECKED_IN || next == CANCELLED;
+                case CHECKED_IN -> next == IN_PROGRESS || next == COMPLETED || next == CANCELLED;
+                case IN_PROGRESS -> next == COMPLETED;
+                case COMPLETED, CANCELLED -> false;
+            };
+        }
+
+        public boolean isTerminal() {
+            return this == COMPLETED || this == CANCELLED;
+        }
     }
 
     public enum PaymentMethod {
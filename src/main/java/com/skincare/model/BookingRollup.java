@@ -0,0 +1,64 @@
+package com.skincare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "booking_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_booking_rollups_cell",
+                                             columnNames = {"rollup_date", "service_id", "status", "paid", "payment_method"}))
+public class BookingRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(nullable = false)
+    private Long serviceId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Booking.BookingStatus status;
+
+    private boolean paid;
+
+    // Unpaid cells are keyed as NONE: MySQL treats NULLs as distinct, which would let the unique key admit duplicates
+    @Convert(converter = PaymentMethodKeyConverter.class)
+    @Column(nullable = false)
+    private Booking.PaymentMethod paymentMethod;
+
+    private long bookingCount;
+
+    private BigDecimal revenue;
+
+    @Converter
+    public static class PaymentMethodKeyConverter implements AttributeConverter<Booking.PaymentMethod, String> {
+        public static final String NONE = "NONE";
+
+        public static String toKey(Booking.PaymentMethod paymentMethod) {
+            return paymentMethod == null ? NONE : paymentMethod.name();
+        }
+
+        @Override
+        public String convertToDatabaseColumn(Booking.PaymentMethod paymentMethod) {
+            return toKey(paymentMethod);
+        }
+
+        @Override
+        public Booking.PaymentMethod convertToEntityAttribute(String key) {
+            return key == null || NONE.equals(key) ? null : Booking.PaymentMethod.valueOf(key);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.skincare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "rating_aggregates",
+       uniqueConstraints = @UniqueConstraint(name = "uk_rating_aggregates_subject",
+                                             columnNames = {"subject_type", "subject_id"}))
+public class RatingAggregate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SubjectType subjectType;
+
+    @Column(nullable = false)
+    private Long subjectId;
+
+    private long ratingCount;
+
+    private long ratingSum;
+
+    private long oneStar;
+
+    private long twoStars;
+
+    private long threeStars;
+
+    private long fourStars;
+
+    private long fiveStars;
+
+    public enum SubjectType {
+        SERVICE, THERAPIST
+    }
+}
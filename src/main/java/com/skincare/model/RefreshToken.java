@@ -0,0 +1,44 @@
+package com.skincare.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "refresh_tokens",
+       uniqueConstraints = @UniqueConstraint(name = "uk_refresh_tokens_hash", columnNames = "token_hash"),
+       indexes = {
+               @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+               @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+       })
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the token, the token itself is only ever known to the client
+    @Column(nullable = false, length = 43)
+    private String tokenHash;
+
+    // Every token rotated out of the same login shares its family
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private boolean used;
+
+    private boolean revoked;
+}
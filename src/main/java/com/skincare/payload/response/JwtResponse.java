@@ -7,6 +7,7 @@ import lombok.Data;
 @Data
 public class JwtResponse {
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
     private Long id;
     private String username;
@@ -15,8 +16,9 @@ public class JwtResponse {
     private Long therapistId;
     private List<String> roles;
 
-    public JwtResponse(String accessToken, Long id, String username, String email, Long customerId, Long therapistId, List<String> roles) {
+    public JwtResponse(String accessToken, String refreshToken, Long id, String username, String email, Long customerId, Long therapistId, List<String> roles) {
         this.token = accessToken;
+        this.refreshToken = refreshToken;
         this.id = id;
         this.username = username;
         this.email = email;
@@ -0,0 +1,113 @@
+package com.skincare.repository;
+
+import com.skincare.model.Booking;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class BookingJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies the same transition to every booking in one JDBC batch, each UPDATE guarded like
+     * {@link BookingRepository#applyTransition}. Returns, per booking, whether its guard matched.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean[] batchApplyTransition(List<Long> ids, Collection<Booking.BookingStatus> from, boolean unpaidOnly,
+                                          boolean openOnly, Booking change) {
+        // The change is the same for every booking, so only the columns it sets are written
+        List<Object> values = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("UPDATE bookings SET previous_status = status");
+        set(sql, values, "status", change.getStatus() != null ? change.getStatus().name() : null);
+        set(sql, values, "checkin_time", timestamp(change.getCheckinTime()));
+        set(sql, values, "checkout_time", timestamp(change.getCheckoutTime()));
+        set(sql, values, "service_results", change.getServiceResults());
+        set(sql, values, "is_paid", change.getIsPaid());
+        set(sql, values, "payment_time", timestamp(change.getPaymentTime()));
+        set(sql, values, "payment_method", change.getPaymentMethod() != null ? change.getPaymentMethod().name() : null);
+        set(sql, values, "cancellation_reason", change.getCancellationReason());
+        set(sql, values, "updated_at", timestamp(change.getUpdatedAt()));
+        sql.append(", version = version + 1 WHERE id = ? AND status IN (")
+                .append(String.join(", ", Collections.nCopies(from.size(), "?")))
+                .append(")");
+        if (unpaidOnly) {
+            sql.append(" AND (is_paid IS NULL OR is_paid = FALSE)");
+        }
+        if (openOnly) {
+            sql.append(" AND checkout_time IS NULL");
+        }
+        List<String> statuses = from.stream().map(Enum::name).toList();
+
+        return jdbcTemplate.execute((ConnectionCallback<boolean[]>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement ps = connection.prepareStatement(sql.toString())) {
+                for (Long id : ids) {
+                    bind(ps, values, id, statuses);
+                    ps.addBatch();
+                }
+                int[] counts = ps.executeBatch();
+
+                boolean[] applied = new boolean[ids.size()];
+                if (reportsRowCounts(counts, applied.length)) {
+                    for (int i = 0; i < counts.length; i++) {
+                        applied[i] = counts[i] > 0;
+                    }
+                } else {
+                    // Rewritten batches can stop reporting per-row counts. Rather than guess which guards
+                    // matched, undo the batch and run the updates one at a time
+                    connection.rollback(savepoint);
+                    for (int i = 0; i < applied.length; i++) {
+                        bind(ps, values, ids.get(i), statuses);
+                        applied[i] = ps.executeUpdate() > 0;
+                    }
+                }
+                connection.releaseSavepoint(savepoint);
+                return applied;
+            }
+        });
+    }
+
+    private static boolean reportsRowCounts(int[] counts, int statements) {
+        return counts.length == statements && Arrays.stream(counts).noneMatch(c -> c == Statement.SUCCESS_NO_INFO);
+    }
+
+    private static void set(StringBuilder sql, List<Object> values, String column, Object value) {
+        if (value != null) {
+            sql.append(", ").append(column).append(" = ?");
+            values.add(value);
+        }
+    }
+
+    private static void bind(PreparedStatement ps, List<Object> values, Long id, List<String> statuses)
+            throws SQLException {
+        int index = 1;
+        for (Object value : values) {
+            ps.setObject(index++, value);
+        }
+        ps.setLong(index++, id);
+        for (String status : statuses) {
+            ps.setString(index++, status);
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+}
@@ -1,17 +1,113 @@
 
 package com.skincare.repository;
 
+import com.skincare.dto.BookingExportDto;
 import com.skincare.model.Booking;
 import com.skincare.model.Customer;
+import com.skincare.model.Therapist;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByCustomer(Customer customer);
     
     @Query("SELECT b FROM Booking b WHERE b.appointmentTime BETWEEN :startDate AND :endDate")
     List<Booking> findBookingsBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
+
+    // One statement per transition: the WHERE clause is the state guard, columns left null in the change keep their
+    // value. Lifecycle writes all guard on the state they depend on rather than on the version, so none of them has to
+    // read the booking first. previousStatus comes first because MySQL evaluates SET assignments left to right
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.previousStatus = b.status, b.status = COALESCE(:#{#change.status}, b.status), " +
+           "b.checkinTime = COALESCE(:#{#change.checkinTime}, b.checkinTime), " +
+           "b.checkoutTime = COALESCE(:#{#change.checkoutTime}, b.checkoutTime), " +
+           "b.serviceResults = COALESCE(:#{#change.serviceResults}, b.serviceResults), " +
+           "b.isPaid = COALESCE(:#{#change.isPaid}, b.isPaid), " +
+           "b.paymentTime = COALESCE(:#{#change.paymentTime}, b.paymentTime), " +
+           "b.paymentMethod = COALESCE(:#{#change.paymentMethod}, b.paymentMethod), " +
+           "b.cancellationReason = COALESCE(:#{#change.cancellationReason}, b.cancellationReason), " +
+           "b.updatedAt = :#{#change.updatedAt}, b.version = b.version + 1 " +
+           "WHERE b.id = :id AND b.status IN :from " +
+           "AND (:unpaidOnly = false OR b.isPaid IS NULL OR b.isPaid = false) " +
+           "AND (:openOnly = false OR b.checkoutTime IS NULL)")
+    int applyTransition(Long id, Collection<Booking.BookingStatus> from, boolean unpaidOnly, boolean openOnly,
+                        Booking change);
+
+    // Also guarded on the therapist being replaced, whose reservation the caller moves
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.therapist = :therapist, b.updatedAt = :updatedAt, b.version = b.version + 1 " +
+           "WHERE b.id = :id AND b.status IN :from " +
+           "AND (b.therapist.id = :previousTherapistId OR (:previousTherapistId IS NULL AND b.therapist IS NULL))")
+    int assignTherapist(Long id, Collection<Booking.BookingStatus> from, Long previousTherapistId, Therapist therapist,
+                        LocalDateTime updatedAt);
+
+    @Query("SELECT COALESCE(SUM(b.amount), 0) FROM Booking b WHERE b.isPaid = true")
+    BigDecimal sumPaidRevenue();
+
+    // Serialized as entities by the dashboard, so everything Jackson walks is fetched up front
+    @EntityGraph(attributePaths = {"customer", "service", "therapist.services"})
+    List<Booking> findTop5ByOrderByCreatedAtDesc();
+
+    @Query("SELECT b.service.id AS serviceId, b.status AS status, b.isPaid AS paid, b.paymentMethod AS paymentMethod, " +
+           "COUNT(b) AS bookingCount, SUM(CASE WHEN b.isPaid = true THEN b.amount ELSE 0 END) AS revenue " +
+           "FROM Booking b WHERE b.appointmentTime BETWEEN :startDate AND :endDate " +
+           "GROUP BY b.service.id, b.status, b.isPaid, b.paymentMethod")
+    List<BookingRollupRepository.Totals> sumBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
+
+    @Query("SELECT CAST(b.appointmentTime AS LocalDate) AS rollupDate, b.service.id AS serviceId, b.status AS status, " +
+           "b.isPaid AS paid, b.paymentMethod AS paymentMethod, COUNT(b) AS bookingCount, " +
+           "SUM(CASE WHEN b.isPaid = true THEN b.amount ELSE 0 END) AS revenue " +
+           "FROM Booking b WHERE b.appointmentTime BETWEEN :startDate AND :endDate " +
+           "GROUP BY CAST(b.appointmentTime AS LocalDate), b.service.id, b.status, b.isPaid, b.paymentMethod")
+    List<BookingRollupRepository.DailyTotals> sumByDayBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.skincare.dto.BookingExportDto(b.id, b.appointmentTime, b.status, b.customer.id, s.id, s.name, " +
+           "t.id, b.amount, b.isPaid, b.paymentMethod, b.paymentTime) " +
+           "FROM Booking b JOIN b.service s LEFT JOIN b.therapist t " +
+           "WHERE b.appointmentTime BETWEEN :startDate AND :endDate ORDER BY b.appointmentTime, b.id")
+    Stream<BookingExportDto> streamForExport(LocalDateTime startDate, LocalDateTime endDate);
+
+    @Query("SELECT b.id AS bookingId, b.therapist.id AS therapistId, b.appointmentTime AS appointmentTime, " +
+           "b.service.durationMinutes AS durationMinutes FROM Booking b " +
+           "WHERE b.therapist IS NOT NULL AND b.status <> :excludedStatus AND b.appointmentTime >= :from")
+    List<TherapistSlot> findTherapistSlotsFrom(LocalDateTime from, Booking.BookingStatus excludedStatus);
+
+    interface TherapistSlot {
+        Long getBookingId();
+
+        Long getTherapistId();
+
+        LocalDateTime getAppointmentTime();
+
+        Integer getDurationMinutes();
+    }
+
+    // Checks everything a new booking refers to in one round trip; empty when the service does not exist
+    @Query("SELECT s.durationMinutes AS serviceDurationMinutes, " +
+           "(SELECT COUNT(c) FROM Customer c WHERE c.id = :customerId) AS customerCount, " +
+           "(SELECT COUNT(t) FROM Therapist t WHERE t.id = :therapistId) AS therapistCount " +
+           "FROM Service s WHERE s.id = :serviceId")
+    Optional<BookingReferences> findReferences(Long customerId, Long serviceId, Long therapistId);
+
+    interface BookingReferences {
+        Integer getServiceDurationMinutes();
+        long getCustomerCount();
+        long getTherapistCount();
+    }
 }
@@ -0,0 +1,51 @@
+package com.skincare.repository;
+
+import com.skincare.model.Booking;
+import com.skincare.model.BookingRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface BookingRollupRepository extends JpaRepository<BookingRollup, Long> {
+    // Relies on uk_booking_rollups_cell, so concurrent first writers to a cell add up instead of inserting twice
+    @Modifying
+    @Query(value = "INSERT INTO booking_rollups (rollup_date, service_id, status, paid, payment_method, " +
+                   "booking_count, revenue) VALUES (:rollupDate, :serviceId, :status, :paid, :paymentMethod, " +
+                   ":bookingCount, :revenue) ON DUPLICATE KEY UPDATE " +
+                   "booking_count = booking_count + VALUES(booking_count), revenue = revenue + VALUES(revenue)",
+           nativeQuery = true)
+    int upsert(LocalDate rollupDate, Long serviceId, String status, boolean paid, String paymentMethod,
+               long bookingCount, BigDecimal revenue);
+
+    @Query("SELECT r.serviceId AS serviceId, r.status AS status, r.paid AS paid, r.paymentMethod AS paymentMethod, " +
+           "SUM(r.bookingCount) AS bookingCount, SUM(r.revenue) AS revenue " +
+           "FROM BookingRollup r WHERE r.rollupDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.serviceId, r.status, r.paid, r.paymentMethod")
+    List<Totals> sumBetweenDates(LocalDate startDate, LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM BookingRollup r WHERE r.rollupDate BETWEEN :startDate AND :endDate")
+    int deleteBetweenDates(LocalDate startDate, LocalDate endDate);
+
+    interface Totals {
+        Long getServiceId();
+
+        Booking.BookingStatus getStatus();
+
+        Boolean getPaid();
+
+        Booking.PaymentMethod getPaymentMethod();
+
+        Long getBookingCount();
+
+        BigDecimal getRevenue();
+    }
+
+    interface DailyTotals extends Totals {
+        LocalDate getRollupDate();
+    }
+}
@@ -3,9 +3,15 @@ package com.skincare.repository;
 
 import com.skincare.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByEmail(String email);
+
+    @Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+    Set<Long> findExistingIds(Collection<Long> ids);
 }
@@ -2,18 +2,55 @@
 package com.skincare.repository;
 
 import com.skincare.model.Feedback;
-import com.skincare.model.Service;
-import com.skincare.model.Therapist;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
-    List<Feedback> findByService(Service service);
-    
-    List<Feedback> findByTherapist(Therapist therapist);
-    
-    List<Feedback> findByServiceAndIsPublic(Service service, Boolean isPublic);
-    
-    List<Feedback> findByTherapistAndIsPublic(Therapist therapist, Boolean isPublic);
+    // Newest first; the cursor variants continue strictly after the (createdAt, id) of the last row seen.
+    // FeedbackService#mapToDto only reads the booking id, which the lazy proxy holds, so no join is needed
+    @Query("SELECT f FROM Feedback f WHERE f.service.id = :serviceId AND f.isPublic = true " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Feedback> findPublicByService(Long serviceId, Limit limit);
+
+    @Query("SELECT f FROM Feedback f WHERE f.service.id = :serviceId AND f.isPublic = true " +
+           "AND (f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Feedback> findPublicByServiceAfter(Long serviceId, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query("SELECT f FROM Feedback f WHERE f.therapist.id = :therapistId AND f.isPublic = true " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Feedback> findPublicByTherapist(Long therapistId, Limit limit);
+
+    @Query("SELECT f FROM Feedback f WHERE f.therapist.id = :therapistId AND f.isPublic = true " +
+           "AND (f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Feedback> findPublicByTherapistAfter(Long therapistId, LocalDateTime createdAt, Long id, Limit limit);
+
+    @Query("SELECT f.service.id AS subjectId, f.rating AS rating, COUNT(f) AS ratingCount " +
+           "FROM Feedback f GROUP BY f.service.id, f.rating")
+    List<RatingCount> countRatingsByService();
+
+    @Query("SELECT f.therapist.id AS subjectId, f.rating AS rating, COUNT(f) AS ratingCount " +
+           "FROM Feedback f WHERE f.therapist IS NOT NULL GROUP BY f.therapist.id, f.rating")
+    List<RatingCount> countRatingsByTherapist();
+
+    @Query("SELECT f.customer.id AS customerId, f.service.id AS serviceId, AVG(f.rating) AS rating " +
+           "FROM Feedback f GROUP BY f.customer.id, f.service.id")
+    List<CustomerServiceRating> findCustomerServiceRatings();
+
+    interface CustomerServiceRating {
+        Long getCustomerId();
+        Long getServiceId();
+        Double getRating();
+    }
+
+    interface RatingCount {
+        Long getSubjectId();
+        Integer getRating();
+        Long getRatingCount();
+    }
 }
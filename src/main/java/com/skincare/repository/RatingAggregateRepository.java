@@ -0,0 +1,29 @@
+package com.skincare.repository;
+
+import com.skincare.model.RatingAggregate;
+import com.skincare.model.RatingAggregate.SubjectType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface RatingAggregateRepository extends JpaRepository<RatingAggregate, Long> {
+    Optional<RatingAggregate> findBySubjectTypeAndSubjectId(SubjectType subjectType, Long subjectId);
+
+    // Relies on uk_rating_aggregates_subject; every column is a delta, so writers on other instances add up
+    @Modifying
+    @Query(value = "INSERT INTO rating_aggregates (subject_type, subject_id, rating_count, rating_sum, one_star, " +
+                   "two_stars, three_stars, four_stars, five_stars) VALUES (:subjectType, :subjectId, " +
+                   ":ratingCount, :ratingSum, :oneStar, :twoStars, :threeStars, :fourStars, :fiveStars) " +
+                   "ON DUPLICATE KEY UPDATE rating_count = rating_count + VALUES(rating_count), " +
+                   "rating_sum = rating_sum + VALUES(rating_sum), one_star = one_star + VALUES(one_star), " +
+                   "two_stars = two_stars + VALUES(two_stars), three_stars = three_stars + VALUES(three_stars), " +
+                   "four_stars = four_stars + VALUES(four_stars), five_stars = five_stars + VALUES(five_stars)",
+           nativeQuery = true)
+    int upsert(String subjectType, Long subjectId, long ratingCount, long ratingSum, long oneStar, long twoStars,
+               long threeStars, long fourStars, long fiveStars);
+
+    @Query("SELECT COALESCE(SUM(r.ratingCount), 0) FROM RatingAggregate r WHERE r.subjectType = :subjectType")
+    long sumRatingCount(SubjectType subjectType);
+}
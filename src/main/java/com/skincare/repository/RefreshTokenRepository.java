@@ -0,0 +1,29 @@
+package com.skincare.repository;
+
+import com.skincare.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Claims the token; of two concurrent refreshes with the same token only one sees an update count of 1
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.used = true WHERE r.tokenHash = :tokenHash " +
+           "AND r.used = false AND r.revoked = false AND r.expiresAt > :now")
+    int markUsed(String tokenHash, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.familyId = :familyId AND r.revoked = false")
+    int revokeFamily(String familyId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
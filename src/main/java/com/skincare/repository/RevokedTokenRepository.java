@@ -0,0 +1,25 @@
+package com.skincare.repository;
+
+import com.skincare.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    @Query("SELECT r.jti AS jti, r.expiresAt AS expiresAt FROM RevokedToken r WHERE r.expiresAt > :now")
+    List<Revocation> findUnexpired(LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+
+    interface Revocation {
+        String getJti();
+        LocalDateTime getExpiresAt();
+    }
+}
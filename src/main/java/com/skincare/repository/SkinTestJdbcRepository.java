@@ -0,0 +1,54 @@
+package com.skincare.repository;
+
+import com.skincare.model.SkinTest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class SkinTestJdbcRepository {
+    private static final String INSERT =
+            "INSERT INTO skin_tests (customer_id, skin_type, skin_concerns, oiliness, sensitivity, hydration, " +
+            "pigmentation, wrinkles, additional_notes, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts all skin tests as one JDBC batch. The customer is only read for its id.
+     */
+    public void batchInsert(List<SkinTest> skinTests) {
+        jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                SkinTest skinTest = skinTests.get(i);
+                if (skinTest.getCustomer() != null) {
+                    ps.setLong(1, skinTest.getCustomer().getId());
+                } else {
+                    ps.setNull(1, Types.BIGINT);
+                }
+                ps.setString(2, skinTest.getSkinType());
+                ps.setString(3, skinTest.getSkinConcerns());
+                ps.setObject(4, skinTest.getOiliness(), Types.INTEGER);
+                ps.setObject(5, skinTest.getSensitivity(), Types.INTEGER);
+                ps.setObject(6, skinTest.getHydration(), Types.INTEGER);
+                ps.setObject(7, skinTest.getPigmentation(), Types.INTEGER);
+                ps.setObject(8, skinTest.getWrinkles(), Types.INTEGER);
+                ps.setString(9, skinTest.getAdditionalNotes());
+                ps.setTimestamp(10, Timestamp.valueOf(skinTest.getCreatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return skinTests.size();
+            }
+        });
+    }
+}
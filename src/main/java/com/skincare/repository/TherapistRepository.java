@@ -1,8 +1,22 @@
-
 package com.skincare.repository;
 
 import com.skincare.model.Therapist;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface TherapistRepository extends JpaRepository<Therapist, Long> {
+    @Override
+    @EntityGraph(attributePaths = "services")
+    List<Therapist> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "services")
+    Optional<Therapist> findById(Long id);
+
+    @Query("SELECT t.id FROM Therapist t JOIN t.services s WHERE s.id = :serviceId ORDER BY t.id")
+    List<Long> findIdsByServiceId(Long serviceId);
 }
@@ -2,6 +2,7 @@
 package com.skincare.repository;
 
 import com.skincare.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,6 +10,7 @@ import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @EntityGraph(attributePaths = {"roles", "customer", "therapist"})
     Optional<User> findByUsername(String username);
     
     Optional<User> findByEmail(String email);
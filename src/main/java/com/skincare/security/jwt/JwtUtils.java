@@ -2,26 +2,32 @@
 package com.skincare.security.jwt;
 
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import com.skincare.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.SignatureException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.security.SecurityException;
 
+import jakarta.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 
 @Component
@@ -34,45 +40,65 @@ public class JwtUtils {
     @Value("${skincare.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
-    @Value("${skincare.app.jwtEnabled:true}")
-    private boolean jwtEnabled;
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_EMAIL = "email";
+    private static final String CLAIM_ROLES = "roles";
+    private static final String CLAIM_CUSTOMER_ID = "customerId";
+    private static final String CLAIM_THERAPIST_ID = "therapistId";
 
-    public String generateJwtToken(Authentication authentication) {
-        UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
-
-        return Jwts.builder()
-                .setSubject((userPrincipal.getUsername()))
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
-                .compact();
+    // Decoding the secret and building the parser are not free, so both are done once
+    private SecretKey key;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser().verifyWith(key).build();
     }
 
-    private SecretKey key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    public String generateJwtToken(Authentication authentication) {
+        return generateJwtToken((UserDetailsImpl) authentication.getPrincipal());
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+    public String generateJwtToken(UserDetailsImpl userPrincipal) {
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(userPrincipal.getUsername())
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                .claim(CLAIM_ROLES, roles)
+                .issuedAt(new Date())
+                .expiration(new Date((new Date()).getTime() + jwtExpirationMs));
+        if (userPrincipal.getCustomerId() != null) {
+            builder.claim(CLAIM_CUSTOMER_ID, userPrincipal.getCustomerId());
+        }
+        if (userPrincipal.getTherapistId() != null) {
+            builder.claim(CLAIM_THERAPIST_ID, userPrincipal.getTherapistId());
+        }
+        return builder.signWith(key, Jwts.SIG.HS256).compact();
     }
 
-    public boolean validateJwtToken(String authToken) {
-        // If JWT validation is disabled, return true always
-        if (!jwtEnabled) {
-            return true;
+    /**
+     * The token of a "Bearer" authorization header, or null when there is none.
+     */
+    public String parseBearerToken(String headerAuth) {
+        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
+            return headerAuth.substring(7);
         }
 
+        return null;
+    }
+
+    /**
+     * Verifies the token and returns its claims, or null when it is not valid.
+     */
+    public Claims parseClaims(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(key())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            return parser.parseSignedClaims(authToken).getPayload();
         } catch (SignatureException e) {
             logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
@@ -85,6 +111,29 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    /**
+     * The user the claims describe, or null for tokens issued before the identity claims were added.
+     */
+    public UserDetailsImpl getUserDetailsFromClaims(Claims claims) {
+        Long id = claims.get(CLAIM_USER_ID, Long.class);
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        if (id == null || roles == null) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new UserDetailsImpl(
+                id,
+                claims.getSubject(),
+                claims.get(CLAIM_EMAIL, String.class),
+                null,
+                claims.get(CLAIM_CUSTOMER_ID, Long.class),
+                claims.get(CLAIM_THERAPIST_ID, Long.class),
+                authorities);
     }
 }
@@ -0,0 +1,129 @@
+package com.skincare.security.jwt;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.skincare.model.RevokedToken;
+import com.skincare.repository.RevokedTokenRepository;
+
+/**
+ * Ids of revoked tokens that have not expired yet. The table is the record; in memory a Bloom filter sits in
+ * front of the exact set, so checking a token that was never revoked, nearly every request, costs a few bit
+ * probes. A periodic refresh purges expired revocations, picks up those made by other instances and
+ * rebuilds the filter, which cannot forget entries on its own.
+ */
+@Component
+public class TokenDenylist {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenDenylist.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+    private volatile Snapshot snapshot;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder filterPasses = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public TokenDenylist(RevokedTokenRepository revokedTokenRepository,
+                         @Value("${skincare.app.revocation.expectedTokens:100000}") int expectedRevocations) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.snapshot = new Snapshot(BloomFilter.create(expectedRevocations, FALSE_POSITIVE_RATE),
+                new ConcurrentHashMap<>());
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        checks.increment();
+        Snapshot current = snapshot;
+        if (!current.filter().mightContain(jti)) {
+            return false;
+        }
+        filterPasses.increment();
+        if (current.revoked().containsKey(jti)) {
+            rejections.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Revokes the token until it expires; revoking it again is a no-op.
+     */
+    public void revoke(String jti, Date expiration) {
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault());
+        if (!expiresAt.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        try {
+            revokedTokenRepository.save(RevokedToken.builder().jti(jti).expiresAt(expiresAt).build());
+        } catch (DataIntegrityViolationException e) {
+            // The unique jti already holds it, from a repeated or concurrent logout
+            logger.debug("Token {} was already revoked", jti);
+        }
+        synchronized (this) {
+            snapshot.revoked().put(jti, expiresAt);
+            snapshot.filter().add(jti);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${skincare.app.revocation.refreshIntervalMs:60000}",
+            initialDelayString = "${skincare.app.revocation.refreshIntervalMs:60000}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        Map<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+        for (RevokedTokenRepository.Revocation revocation : revokedTokenRepository.findUnexpired(now)) {
+            revoked.put(revocation.getJti(), revocation.getExpiresAt());
+        }
+
+        synchronized (this) {
+            // Revocations stored after the query above are only in the old snapshot, so carry them over
+            snapshot.revoked().forEach((jti, expiresAt) -> {
+                if (expiresAt.isAfter(now)) {
+                    revoked.putIfAbsent(jti, expiresAt);
+                }
+            });
+            BloomFilter filter = BloomFilter.create(Math.max(expectedRevocations, revoked.size() * 2),
+                    FALSE_POSITIVE_RATE);
+            revoked.keySet().forEach(filter::add);
+            snapshot = new Snapshot(filter, revoked);
+        }
+        logger.debug("Token denylist refreshed with {} revocations, {} expired ones purged", revoked.size(), purged);
+    }
+
+    public Map<String, Object> metrics() {
+        long checkCount = checks.sum();
+        long passCount = filterPasses.sum();
+        long rejectionCount = rejections.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("revoked", snapshot.revoked().size());
+        metrics.put("checks", checkCount);
+        metrics.put("filterPasses", passCount);
+        metrics.put("rejections", rejectionCount);
+        metrics.put("falsePositives", passCount - rejectionCount);
+        return metrics;
+    }
+
+    private record Snapshot(BloomFilter filter, Map<String, LocalDateTime> revoked) {
+    }
+}
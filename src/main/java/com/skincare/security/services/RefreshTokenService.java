@@ -0,0 +1,130 @@
+package com.skincare.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.skincare.model.RefreshToken;
+import com.skincare.model.User;
+import com.skincare.repository.RefreshTokenRepository;
+import com.skincare.repository.UserRepository;
+
+/**
+ * Opaque, single-use refresh tokens. Each refresh spends the presented token and issues the next one in the
+ * same family. Presenting a spent token means it was copied, so the whole family is revoked and both the
+ * thief and the legitimate client have to log in again. Tokens are random enough that a plain SHA-256 is a
+ * safe way to store them, so checking one costs a hash and an indexed update instead of a BCrypt round. A
+ * rotated token keeps the expiry of the one it replaces, so a family lives no longer than a login.
+ */
+@Service
+public class RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final long refreshTokenExpirationMs;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+                               @Value("${skincare.app.refreshTokenExpirationMs:2592000000}") long refreshTokenExpirationMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.refreshTokenExpirationMs = refreshTokenExpirationMs;
+    }
+
+    /**
+     * Starts a new family for a fresh login.
+     */
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString(),
+                LocalDateTime.now().plus(Duration.ofMillis(refreshTokenExpirationMs)));
+    }
+
+    /**
+     * Spends the token and returns the user with the next token of its family, or null when the token is
+     * unknown, expired, revoked or reused. Failures are returned rather than thrown so the family revocation
+     * of a reused token is committed instead of rolled back.
+     */
+    @Transactional
+    public Rotation rotate(String token) {
+        String tokenHash = hash(token);
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken current = refreshTokenRepository.findByTokenHash(tokenHash).orElse(null);
+        if (current == null) {
+            return null;
+        }
+
+        if (refreshTokenRepository.markUsed(tokenHash, now) == 0) {
+            // Neither revoked nor expired, so it was spent, possibly by a concurrent refresh read as unused above
+            if (!current.isRevoked() && current.getExpiresAt().isAfter(now)) {
+                int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId());
+                logger.warn("Refresh token reused for user {}, revoked {} tokens of its family",
+                        current.getUserId(), revoked);
+            }
+            return null;
+        }
+
+        User user = userRepository.findById(current.getUserId()).orElse(null);
+        if (user == null || !user.isActive()) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId());
+            return null;
+        }
+        return new Rotation(UserDetailsImpl.build(user), issue(user.getId(), current.getFamilyId(),
+                current.getExpiresAt()));
+    }
+
+    /**
+     * Revokes the family of the token, used on logout. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHash(hash(token))
+                .ifPresent(refreshToken -> refreshTokenRepository.revokeFamily(refreshToken.getFamilyId()));
+    }
+
+    @Scheduled(fixedDelayString = "${skincare.app.refreshTokenPurgeIntervalMs:3600000}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        logger.debug("Purged {} expired refresh tokens", purged);
+    }
+
+    private String issue(Long userId, String familyId, LocalDateTime expiresAt) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .userId(userId)
+                .expiresAt(expiresAt)
+                .build());
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record Rotation(UserDetailsImpl user, String refreshToken) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.skincare.security.services;
+
+import org.springframework.stereotype.Component;
+
+import com.skincare.model.User;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Evicts cached user details whenever a user row is updated or deleted, which covers password, role and
+ * active flag changes alike.
+ */
+@Component
+public class UserCacheEvictionListener {
+    private final UserDetailsCache userDetailsCache;
+
+    public UserCacheEvictionListener(UserDetailsCache userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        userDetailsCache.evict(user.getUsername());
+    }
+}
@@ -0,0 +1,136 @@
+package com.skincare.security.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bounded LRU cache of user details by username with a time to live. Concurrent misses for the same user
+ * share one load: the first caller stores a pending future and loads, the others wait on it. Users are
+ * evicted when their row changes, and a load racing with an eviction is never stored, because the eviction
+ * removes the pending entry the load would have completed.
+ */
+@Component
+public class UserDetailsCache {
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final AtomicLong maxLoadNanos = new AtomicLong();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserDetailsCache(@Value("${skincare.app.userCache.ttlMs:300000}") long ttlMs,
+                            @Value("${skincare.app.userCache.maxSize:10000}") int maxEntries) {
+        this.ttlNanos = ttlMs * 1_000_000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public UserDetailsImpl get(String username, Function<String, UserDetailsImpl> loader) {
+        long now = System.nanoTime();
+        Entry entry;
+        boolean load = false;
+        synchronized (entries) {
+            entry = entries.get(username);
+            if (entry == null || now - entry.createdAt() > ttlNanos) {
+                entry = new Entry(new CompletableFuture<>(), now);
+                entries.put(username, entry);
+                load = true;
+            }
+        }
+
+        if (load) {
+            misses.increment();
+            try {
+                entry.details().complete(loader.apply(username));
+            } catch (RuntimeException e) {
+                // Failures are handed to the waiting callers but not cached
+                remove(username, entry);
+                entry.details().completeExceptionally(e);
+            } finally {
+                long elapsed = System.nanoTime() - now;
+                loads.increment();
+                loadNanos.add(elapsed);
+                maxLoadNanos.accumulateAndGet(elapsed, Math::max);
+            }
+        } else {
+            hits.increment();
+        }
+
+        try {
+            return entry.details().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the user now and again once the surrounding transaction commits, so a load that read the old row
+     * before the commit cannot stay cached.
+     */
+    public void evict(String username) {
+        remove(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(username);
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> metrics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long loadCount = loads.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hits", hitCount);
+        metrics.put("misses", missCount);
+        metrics.put("hitRatio", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        metrics.put("loads", loadCount);
+        metrics.put("averageLoadMillis", loadCount > 0 ? loadNanos.sum() / 1_000_000.0 / loadCount : 0.0);
+        metrics.put("maxLoadMillis", maxLoadNanos.get() / 1_000_000.0);
+        metrics.put("evictions", evictions.sum());
+        synchronized (entries) {
+            metrics.put("size", entries.size());
+        }
+        return metrics;
+    }
+
+    private void remove(String username) {
+        synchronized (entries) {
+            if (entries.remove(username) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private void remove(String username, Entry entry) {
+        synchronized (entries) {
+            entries.remove(username, entry);
+        }
+    }
+
+    private record Entry(CompletableFuture<UserDetailsImpl> details, long createdAt) {
+    }
+}
@@ -1,4 +1,3 @@
-
 package com.skincare.security.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -6,7 +5,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.skincare.model.User;
 import com.skincare.repository.UserRepository;
@@ -16,9 +14,16 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    UserDetailsCache userDetailsCache;
+
+    // No transaction needed: the user, its roles and its customer and therapist come back in one query
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::load);
+    }
+
+    private UserDetailsImpl load(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
 
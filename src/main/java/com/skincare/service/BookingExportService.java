@@ -0,0 +1,99 @@
+package com.skincare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.skincare.dto.BookingExportDto;
+import com.skincare.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class BookingExportService {
+    private static final String CSV_HEADER =
+            "id,appointmentTime,status,customerId,serviceId,serviceName,therapistId,amount,isPaid,paymentMethod,paymentTime";
+
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long export(LocalDateTime startDate, LocalDateTime endDate, ExportFormat format, OutputStream out)
+            throws IOException {
+        try (Stream<BookingExportDto> rows = bookingRepository.streamForExport(startDate, endDate)) {
+            return format == ExportFormat.CSV ? writeCsv(rows.iterator(), out) : writeNdjson(rows.iterator(), out);
+        }
+    }
+
+    private long writeNdjson(Iterator<BookingExportDto> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (SequenceWriter sequenceWriter = objectMapper.writer().withRootValueSeparator("\n").writeValues(writer)) {
+            while (rows.hasNext()) {
+                sequenceWriter.write(rows.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<BookingExportDto> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            BookingExportDto row = rows.next();
+            writer.write(csv(row.getId()));
+            writer.write(',');
+            writer.write(csv(row.getAppointmentTime()));
+            writer.write(',');
+            writer.write(csv(row.getStatus()));
+            writer.write(',');
+            writer.write(csv(row.getCustomerId()));
+            writer.write(',');
+            writer.write(csv(row.getServiceId()));
+            writer.write(',');
+            writer.write(csv(row.getServiceName()));
+            writer.write(',');
+            writer.write(csv(row.getTherapistId()));
+            writer.write(',');
+            writer.write(csv(row.getAmount() != null ? row.getAmount().toPlainString() : null));
+            writer.write(',');
+            writer.write(csv(row.getIsPaid()));
+            writer.write(',');
+            writer.write(csv(row.getPaymentMethod()));
+            writer.write(',');
+            writer.write(csv(row.getPaymentTime()));
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    public enum ExportFormat {
+        CSV, NDJSON
+    }
+}
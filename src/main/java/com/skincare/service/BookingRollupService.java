@@ -0,0 +1,159 @@
+package com.skincare.service;
+
+import com.skincare.model.Booking;
+import com.skincare.model.BookingRollup;
+import com.skincare.repository.BookingRepository;
+import com.skincare.repository.BookingRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+public class BookingRollupService {
+    private final BookingRollupRepository rollupRepository;
+    private final BookingRepository bookingRepository;
+
+    public Contribution contributionOf(Booking booking) {
+        if (booking == null || booking.getAppointmentTime() == null || booking.getService() == null
+                || booking.getStatus() == null) {
+            return null;
+        }
+        boolean paid = Boolean.TRUE.equals(booking.getIsPaid());
+        BigDecimal revenue = paid && booking.getAmount() != null ? booking.getAmount() : BigDecimal.ZERO;
+        return new Contribution(
+                booking.getAppointmentTime().toLocalDate(),
+                booking.getService().getId(),
+                booking.getStatus(),
+                paid,
+                paid ? booking.getPaymentMethod() : null,
+                revenue);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Booking booking) {
+        apply(contributionOf(booking), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Contribution before, Booking after) {
+        Contribution current = contributionOf(after);
+        if (Objects.equals(before, current)) {
+            return;
+        }
+        apply(before, -1);
+        apply(current, 1);
+    }
+
+    // Nets the moves of many bookings per rollup cell first, so each touched cell is written once
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(List<Contribution> before, List<Booking> after) {
+        Map<Contribution, Delta> deltas = new LinkedHashMap<>();
+        for (Contribution contribution : before) {
+            accumulate(deltas, contribution, -1);
+        }
+        for (Booking booking : after) {
+            accumulate(deltas, contributionOf(booking), 1);
+        }
+        deltas.forEach((cell, delta) -> {
+            if (delta.count != 0 || delta.revenue.signum() != 0) {
+                apply(cell, delta.count, delta.revenue);
+            }
+        });
+    }
+
+    private void accumulate(Map<Contribution, Delta> deltas, Contribution contribution, int sign) {
+        if (contribution == null) {
+            return;
+        }
+        Delta delta = deltas.computeIfAbsent(cellOf(contribution), cell -> new Delta());
+        delta.count += sign;
+        delta.revenue = sign > 0 ? delta.revenue.add(contribution.revenue()) : delta.revenue.subtract(contribution.revenue());
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        if (contribution == null) {
+            return;
+        }
+        apply(contribution, sign, sign > 0 ? contribution.revenue() : contribution.revenue().negate());
+    }
+
+    private void apply(Contribution cell, long count, BigDecimal revenue) {
+        rollupRepository.upsert(cell.day(), cell.serviceId(), cell.status().name(), cell.paid(),
+                BookingRollup.PaymentMethodKeyConverter.toKey(cell.paymentMethod()), count, revenue);
+    }
+
+    private Contribution cellOf(Contribution contribution) {
+        return new Contribution(contribution.day(), contribution.serviceId(), contribution.status(),
+                contribution.paid(), contribution.paymentMethod(), BigDecimal.ZERO);
+    }
+
+    public List<BookingRollupRepository.Totals> sumBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        List<BookingRollupRepository.Totals> totals = new ArrayList<>();
+        if (endDate.isBefore(startDate)) {
+            return totals;
+        }
+
+        // Whole days come from the rollups, the partial days at either edge straight from bookings
+        LocalDate firstFullDay = startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? startDate.toLocalDate() : startDate.toLocalDate().plusDays(1);
+        LocalDate lastFullDay = endDate.toLocalTime().equals(LocalTime.MAX)
+                ? endDate.toLocalDate() : endDate.toLocalDate().minusDays(1);
+
+        if (firstFullDay.isAfter(lastFullDay)) {
+            return bookingRepository.sumBetweenDates(startDate, endDate);
+        }
+
+        totals.addAll(rollupRepository.sumBetweenDates(firstFullDay, lastFullDay));
+        if (startDate.isBefore(firstFullDay.atStartOfDay())) {
+            totals.addAll(bookingRepository.sumBetweenDates(startDate, firstFullDay.atStartOfDay().minusNanos(1)));
+        }
+        if (endDate.isAfter(lastFullDay.atTime(LocalTime.MAX))) {
+            totals.addAll(bookingRepository.sumBetweenDates(lastFullDay.plusDays(1).atStartOfDay(), endDate));
+        }
+        return totals;
+    }
+
+    @Transactional
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        rollupRepository.deleteBetweenDates(startDate, endDate);
+
+        Map<Contribution, Delta> rollups = new HashMap<>();
+        for (BookingRollupRepository.DailyTotals row : bookingRepository.sumByDayBetweenDates(
+                startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX))) {
+            boolean paid = Boolean.TRUE.equals(row.getPaid());
+            Contribution cell = new Contribution(row.getRollupDate(), row.getServiceId(), row.getStatus(),
+                    paid, paid ? row.getPaymentMethod() : null, BigDecimal.ZERO);
+            Delta delta = rollups.computeIfAbsent(cell, key -> new Delta());
+            delta.count += row.getBookingCount();
+            if (row.getRevenue() != null) {
+                delta.revenue = delta.revenue.add(row.getRevenue());
+            }
+        }
+
+        // Upserts rather than inserts, so a booking recorded concurrently into a cleared cell cannot collide
+        rollups.forEach((cell, delta) -> apply(cell, delta.count, delta.revenue));
+        return rollups.size();
+    }
+
+    private static class Delta {
+        private long count;
+        private BigDecimal revenue = BigDecimal.ZERO;
+    }
+
+    public record Contribution(LocalDate day, Long serviceId, Booking.BookingStatus status, boolean paid,
+                               Booking.PaymentMethod paymentMethod, BigDecimal revenue) {
+    }
+}
@@ -2,25 +2,44 @@
 package com.skincare.service;
 
 import com.skincare.dto.BookingDto;
+import com.skincare.dto.BulkBookingResultDto;
+import com.skincare.exception.BookingConflictException;
 import com.skincare.exception.ResourceNotFoundException;
+import com.skincare.index.TherapistAvailabilityIndex;
 import com.skincare.mapper.BookingMapper;
 import com.skincare.model.Booking;
 import com.skincare.model.Customer;
+import com.skincare.model.Therapist;
+import com.skincare.repository.BookingJdbcRepository;
 import com.skincare.repository.BookingRepository;
 import com.skincare.repository.CustomerRepository;
+import com.skincare.repository.TherapistRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 @Service
 @RequiredArgsConstructor
 public class BookingService {
     private final BookingRepository bookingRepository;
+    private final BookingJdbcRepository bookingJdbcRepository;
     private final CustomerRepository customerRepository;
+    private final TherapistRepository therapistRepository;
     private final BookingMapper bookingMapper;
+    private final BookingRollupService bookingRollupService;
+    private final TherapistAvailabilityIndex availabilityIndex;
 
     public BookingDto getBookingById(Long id) {
         return bookingRepository.findById(id)
@@ -30,82 +49,200 @@ public class BookingService {
 
     @Transactional
     public BookingDto createBooking(BookingDto bookingDto) {
+        BookingRepository.BookingReferences references = bookingRepository.findReferences(
+                bookingDto.getCustomerId(), bookingDto.getServiceId(), bookingDto.getTherapistId())
+                .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + bookingDto.getServiceId()));
+        if (references.getCustomerCount() == 0) {
+            throw new ResourceNotFoundException("Customer not found with id: " + bookingDto.getCustomerId());
+        }
+        if (bookingDto.getTherapistId() != null && references.getTherapistCount() == 0) {
+            throw new ResourceNotFoundException("Therapist not found with id: " + bookingDto.getTherapistId());
+        }
+        
         Booking booking = bookingMapper.toEntity(bookingDto);
         Booking savedBooking = bookingRepository.save(booking);
+        reserveTherapist(savedBooking, references.getServiceDurationMinutes());
+        bookingRollupService.recordCreated(savedBooking);
         return bookingMapper.toDto(savedBooking);
     }
 
     @Transactional
     public BookingDto checkInBooking(Long id) {
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
-        
-        booking.setCheckinTime(LocalDateTime.now());
-        booking.setStatus(Booking.BookingStatus.CHECKED_IN);
-        
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = transition(id, checkIn());
         return bookingMapper.toDto(updatedBooking);
     }
 
     @Transactional
     public BookingDto assignTherapist(Long id, Long therapistId) {
-        BookingDto bookingDto = getBookingById(id);
-        bookingDto.setTherapistId(therapistId);
+        if (!therapistRepository.existsById(therapistId)) {
+            throw new ResourceNotFoundException("Therapist not found with id: " + therapistId);
+        }
+        Therapist therapist = therapistRepository.getReferenceById(therapistId);
         
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
+        // Moving the reservation needs the current therapist and slot, so this one reads before it writes
+        Booking current = findBooking(id);
+        Long previousTherapistId = current.getTherapist() != null ? current.getTherapist().getId() : null;
+        Set<Booking.BookingStatus> assignable = statuses(status -> !status.isTerminal());
+        if (!assignable.contains(current.getStatus())) {
+            throw new BookingConflictException("Cannot assign a therapist to booking " + id + " in status "
+                    + current.getStatus());
+        }
+        if (bookingRepository.assignTherapist(id, assignable, previousTherapistId, therapist, LocalDateTime.now()) == 0) {
+            throw new BookingConflictException("Booking " + id + " was modified concurrently, please retry");
+        }
         
-        bookingMapper.updateEntityFromDto(bookingDto, booking);
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = findBooking(id);
+        if (!Objects.equals(previousTherapistId, therapistId)) {
+            reserveTherapist(updatedBooking);
+            availabilityIndex.release(id, previousTherapistId);
+        }
         return bookingMapper.toDto(updatedBooking);
     }
 
     @Transactional
     public BookingDto recordServiceResults(Long id, String results) {
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
-        
-        booking.setServiceResults(results);
-        booking.setStatus(Booking.BookingStatus.COMPLETED);
-        
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = transition(id, new Transition("record results for",
+                completable(), false, true,
+                booking -> booking
+                        .serviceResults(results)
+                        .status(Booking.BookingStatus.COMPLETED)));
         return bookingMapper.toDto(updatedBooking);
     }
 
     @Transactional
     public BookingDto checkOutBooking(Long id) {
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
-        
-        booking.setCheckoutTime(LocalDateTime.now());
-        booking.setStatus(Booking.BookingStatus.COMPLETED);
-        
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = transition(id, checkOut());
         return bookingMapper.toDto(updatedBooking);
     }
 
     @Transactional
     public BookingDto processPayment(Long id, Booking.PaymentMethod paymentMethod) {
-        Booking booking = bookingRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
-        
-        booking.setIsPaid(true);
-        booking.setPaymentTime(LocalDateTime.now());
-        booking.setPaymentMethod(paymentMethod);
-        
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = transition(id, payment(paymentMethod));
         return bookingMapper.toDto(updatedBooking);
     }
 
     @Transactional
     public void cancelBooking(Long id, String reason) {
-        Booking booking = bookingRepository.findById(id)
+        Booking updatedBooking = transition(id, new Transition("cancel",
+                statuses(status -> status.canTransitionTo(Booking.BookingStatus.CANCELLED)), false, false,
+                booking -> booking
+                        .status(Booking.BookingStatus.CANCELLED)
+                        .cancellationReason(reason)));
+        if (updatedBooking.getTherapist() != null) {
+            availabilityIndex.release(id, updatedBooking.getTherapist().getId());
+        }
+    }
+
+    @Transactional
+    public List<BulkBookingResultDto> checkInBookings(List<Long> ids) {
+        return transitionAll(ids, checkIn());
+    }
+
+    @Transactional
+    public List<BulkBookingResultDto> checkOutBookings(List<Long> ids) {
+        return transitionAll(ids, checkOut());
+    }
+
+    @Transactional
+    public List<BulkBookingResultDto> processPayments(List<Long> ids, Booking.PaymentMethod paymentMethod) {
+        return transitionAll(ids, payment(paymentMethod));
+    }
+
+    private static Transition checkIn() {
+        return new Transition("check in",
+                statuses(status -> status.canTransitionTo(Booking.BookingStatus.CHECKED_IN)), false, false,
+                booking -> booking
+                        .checkinTime(LocalDateTime.now())
+                        .status(Booking.BookingStatus.CHECKED_IN));
+    }
+
+    private static Transition checkOut() {
+        return new Transition("check out",
+                completable(), false, true,
+                booking -> booking
+                        .checkoutTime(LocalDateTime.now())
+                        .status(Booking.BookingStatus.COMPLETED));
+    }
+
+    private static Transition payment(Booking.PaymentMethod paymentMethod) {
+        return new Transition("pay for",
+                statuses(status -> status != Booking.BookingStatus.CANCELLED), true, false,
+                booking -> booking
+                        .isPaid(true)
+                        .paymentTime(LocalDateTime.now())
+                        .paymentMethod(paymentMethod));
+    }
+
+    // Results can be recorded and the customer checked out until the booking has been checked out
+    private static Set<Booking.BookingStatus> completable() {
+        return statuses(status -> status.canTransitionTo(Booking.BookingStatus.COMPLETED)
+                || status == Booking.BookingStatus.COMPLETED);
+    }
+
+    private static Set<Booking.BookingStatus> statuses(Predicate<Booking.BookingStatus> filter) {
+        Set<Booking.BookingStatus> statuses = EnumSet.noneOf(Booking.BookingStatus.class);
+        for (Booking.BookingStatus status : Booking.BookingStatus.values()) {
+            if (filter.test(status)) {
+                statuses.add(status);
+            }
+        }
+        return statuses;
+    }
+
+    private Booking findBooking(Long id) {
+        return bookingRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
+    }
+
+    // The conditional UPDATE is the state guard, so a transition does not read the booking first. The same UPDATE
+    // records the status the booking left, which the rollups need. The booking is read afterwards to build the
+    // response, or to explain why the guard did not match.
+    private Booking transition(Long id, Transition transition) {
+        boolean applied = bookingRepository.applyTransition(id, transition.from(), transition.unpaidOnly(),
+                transition.openOnly(), transition.patch()) > 0;
+
+        Booking booking = findBooking(id);
+        if (!applied) {
+            throw new BookingConflictException(transition.allowed(booking)
+                    ? "Booking " + id + " was modified concurrently, please retry"
+                    : transition.rejection(booking));
+        }
+        Booking before = transition.before(booking, booking.getPreviousStatus());
+        bookingRollupService.recordChange(bookingRollupService.contributionOf(before), booking);
+        return booking;
+    }
+
+    // Same guarded update for many bookings: one JDBC batch of UPDATEs, one SELECT and one rollup pass,
+    // reporting each booking's outcome instead of failing the whole batch
+    private List<BulkBookingResultDto> transitionAll(List<Long> ids, Transition transition) {
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        boolean[] applied = bookingJdbcRepository.batchApplyTransition(uniqueIds, transition.from(),
+                transition.unpaidOnly(), transition.openOnly(), transition.patch());
+        Map<Long, Booking> bookings = new HashMap<>();
+        for (Booking booking : bookingRepository.findAllById(uniqueIds)) {
+            bookings.put(booking.getId(), booking);
+        }
         
-        booking.setStatus(Booking.BookingStatus.CANCELLED);
-        booking.setCancellationReason(reason);
-        
-        bookingRepository.save(booking);
+        List<BulkBookingResultDto> results = new ArrayList<>();
+        List<BookingRollupService.Contribution> before = new ArrayList<>();
+        List<Booking> after = new ArrayList<>();
+        for (int i = 0; i < uniqueIds.size(); i++) {
+            Long id = uniqueIds.get(i);
+            Booking booking = bookings.get(id);
+            if (booking == null) {
+                results.add(new BulkBookingResultDto(id, false, null, "Booking not found with id: " + id));
+            } else if (applied[i]) {
+                before.add(bookingRollupService.contributionOf(transition.before(booking, booking.getPreviousStatus())));
+                after.add(booking);
+                results.add(new BulkBookingResultDto(id, true, booking.getStatus(), null));
+            } else {
+                results.add(new BulkBookingResultDto(id, false, booking.getStatus(), transition.allowed(booking)
+                        ? "Booking " + id + " was modified concurrently, please retry"
+                        : transition.rejection(booking)));
+            }
+        }
+        bookingRollupService.recordChanges(before, after);
+        return results;
     }
 
     public List<BookingDto> getCustomerBookings(Long customerId) {
@@ -116,8 +253,52 @@ public class BookingService {
         return bookingMapper.toDtoList(bookings);
     }
 
+    private void reserveTherapist(Booking booking) {
+        reserveTherapist(booking, booking.getService().getDurationMinutes());
+    }
+
+    private void reserveTherapist(Booking booking, Integer durationMinutes) {
+        if (booking.getTherapist() == null) {
+            return;
+        }
+        availabilityIndex.reserve(
+                booking.getId(),
+                booking.getTherapist().getId(),
+                booking.getAppointmentTime(),
+                TherapistAvailabilityIndex.duration(durationMinutes));
+    }
+
     public List<BookingDto> getBookingsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         List<Booking> bookings = bookingRepository.findBookingsBetweenDates(startDate, endDate);
         return bookingMapper.toDtoList(bookings);
     }
+
+    private record Transition(String action, Set<Booking.BookingStatus> from, boolean unpaidOnly, boolean openOnly,
+                              UnaryOperator<Booking.BookingBuilder> change) {
+        boolean allowed(Booking current) {
+            return from.contains(current.getStatus())
+                    && (!unpaidOnly || !Boolean.TRUE.equals(current.getIsPaid()))
+                    && (!openOnly || current.getCheckoutTime() == null);
+        }
+
+        // Only the columns the transition sets, for BookingRepository#applyTransition
+        Booking patch() {
+            return change.apply(Booking.builder())
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+        }
+
+        // The booking as it was before the transition, rebuilt from the updated row and the guard it passed
+        Booking before(Booking next, Booking.BookingStatus previous) {
+            Booking.BookingBuilder before = next.toBuilder().status(previous);
+            if (unpaidOnly) {
+                before.isPaid(false).paymentTime(null).paymentMethod(null);
+            }
+            return before.build();
+        }
+
+        String rejection(Booking current) {
+            return "Cannot " + action + " booking " + current.getId() + " in status " + current.getStatus();
+        }
+    }
 }
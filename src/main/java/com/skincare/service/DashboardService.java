@@ -3,14 +3,16 @@ package com.skincare.service;
 
 import com.skincare.model.Booking;
 import com.skincare.repository.BookingRepository;
+import com.skincare.repository.BookingRollupRepository;
 import com.skincare.repository.CustomerRepository;
-import com.skincare.repository.FeedbackRepository;
 import com.skincare.repository.ServiceRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,7 +23,8 @@ public class DashboardService {
     private final BookingRepository bookingRepository;
     private final CustomerRepository customerRepository;
     private final ServiceRepository serviceRepository;
-    private final FeedbackRepository feedbackRepository;
+    private final RatingAggregateService ratingAggregateService;
+    private final BookingRollupService bookingRollupService;
 
     public Map<String, Object> getDashboardData() {
         Map<String, Object> dashboardData = new HashMap<>();
@@ -32,19 +35,15 @@ public class DashboardService {
         dashboardData.put("totalServices", serviceRepository.count());
         
         // Add revenue data
-        BigDecimal totalRevenue = calculateTotalRevenue();
+        BigDecimal totalRevenue = bookingRepository.sumPaidRevenue();
         dashboardData.put("totalRevenue", totalRevenue);
         
         // Add recent bookings
-        List<Booking> recentBookings = bookingRepository.findAll().stream()
-                .sorted((b1, b2) -> b2.getCreatedAt().compareTo(b1.getCreatedAt()))
-                .limit(5)
-                .toList();
+        List<Booking> recentBookings = bookingRepository.findTop5ByOrderByCreatedAtDesc();
         dashboardData.put("recentBookings", recentBookings);
         
         // Add average rating
-        Double avgRating = calculateAverageRating();
-        dashboardData.put("averageRating", avgRating);
+        dashboardData.put("averageRating", ratingAggregateService.getOverallSummary().getAverageRating());
         
         return dashboardData;
     }
@@ -52,51 +51,53 @@ public class DashboardService {
     public Map<String, Object> generateReport(LocalDateTime startDate, LocalDateTime endDate) {
         Map<String, Object> report = new HashMap<>();
         
-        List<Booking> bookingsInPeriod = bookingRepository.findBookingsBetweenDates(startDate, endDate);
+        List<BookingRollupRepository.Totals> totals = bookingRollupService.sumBetween(startDate, endDate);
+        
+        long totalBookings = 0;
+        BigDecimal periodRevenue = BigDecimal.ZERO;
+        Map<Booking.BookingStatus, Long> bookingsByStatus = new EnumMap<>(Booking.BookingStatus.class);
+        Map<Booking.PaymentMethod, BigDecimal> revenueByPaymentMethod = new EnumMap<>(Booking.PaymentMethod.class);
+        Map<Long, Long> bookingsByService = new HashMap<>();
+        
+        for (BookingRollupRepository.Totals row : totals) {
+            long count = row.getBookingCount() != null ? row.getBookingCount() : 0;
+            BigDecimal revenue = row.getRevenue() != null ? row.getRevenue() : BigDecimal.ZERO;
+            
+            totalBookings += count;
+            periodRevenue = periodRevenue.add(revenue);
+            if (row.getStatus() != null) {
+                bookingsByStatus.merge(row.getStatus(), count, Long::sum);
+            }
+            if (row.getPaymentMethod() != null && Boolean.TRUE.equals(row.getPaid())) {
+                revenueByPaymentMethod.merge(row.getPaymentMethod(), revenue, BigDecimal::add);
+            }
+            bookingsByService.merge(row.getServiceId(), count, Long::sum);
+        }
+        bookingsByStatus.values().removeIf(count -> count == 0);
+        bookingsByService.values().removeIf(count -> count == 0);
         
         // Basic report statistics
         report.put("period", Map.of("startDate", startDate, "endDate", endDate));
-        report.put("totalBookings", bookingsInPeriod.size());
+        report.put("totalBookings", totalBookings);
         
         // Revenue in period
-        BigDecimal periodRevenue = bookingsInPeriod.stream()
-                .filter(b -> b.getIsPaid() != null && b.getIsPaid())
-                .map(Booking::getAmount)
-                .filter(amount -> amount != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
         report.put("totalRevenue", periodRevenue);
+        report.put("revenueByPaymentMethod", revenueByPaymentMethod);
         
         // Bookings by status
-        Map<Booking.BookingStatus, Long> bookingsByStatus = bookingsInPeriod.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        Booking::getStatus,
-                        java.util.stream.Collectors.counting()
-                ));
         report.put("bookingsByStatus", bookingsByStatus);
         
         // Most popular services
-        Map<String, Long> servicePopularity = bookingsInPeriod.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        b -> b.getService().getName(),
-                        java.util.stream.Collectors.counting()
-                ));
+        Map<String, Long> servicePopularity = new HashMap<>();
+        for (com.skincare.model.Service service : serviceRepository.findAllById(bookingsByService.keySet())) {
+            servicePopularity.merge(service.getName(), bookingsByService.get(service.getId()), Long::sum);
+        }
         report.put("popularServices", servicePopularity);
         
         return report;
     }
 
-    private BigDecimal calculateTotalRevenue() {
-        return bookingRepository.findAll().stream()
-                .filter(b -> b.getIsPaid() != null && b.getIsPaid())
-                .map(Booking::getAmount)
-                .filter(amount -> amount != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private Double calculateAverageRating() {
-        return feedbackRepository.findAll().stream()
-                .mapToInt(f -> f.getRating())
-                .average()
-                .orElse(0.0);
+    public int rebuildRollups(LocalDate startDate, LocalDate endDate) {
+        return bookingRollupService.rebuild(startDate, endDate);
     }
 }
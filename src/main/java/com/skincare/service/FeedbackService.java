@@ -2,45 +2,72 @@
 package com.skincare.service;
 
 import com.skincare.dto.FeedbackDto;
+import com.skincare.dto.FeedbackPageDto;
+import com.skincare.dto.RatingSummaryDto;
+import com.skincare.exception.InvalidCursorException;
 import com.skincare.exception.ResourceNotFoundException;
 import com.skincare.model.Booking;
 import com.skincare.model.Customer;
 import com.skincare.model.Feedback;
-import com.skincare.model.Service;
-import com.skincare.model.Therapist;
 import com.skincare.repository.BookingRepository;
 import com.skincare.repository.FeedbackRepository;
 import com.skincare.repository.ServiceRepository;
 import com.skincare.repository.TherapistRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @org.springframework.stereotype.Service
 @RequiredArgsConstructor
 public class FeedbackService {
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final FeedbackRepository feedbackRepository;
     private final BookingRepository bookingRepository;
     private final ServiceRepository serviceRepository;
     private final TherapistRepository therapistRepository;
+    private final RatingAggregateService ratingAggregateService;
 
-    public List<FeedbackDto> getFeedbackByService(Long serviceId) {
-        Service service = serviceRepository.findById(serviceId)
-                .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + serviceId));
+    @Value("${skincare.app.feedback.pageSize:20}")
+    private int defaultPageSize;
 
-        List<Feedback> feedbacks = feedbackRepository.findByServiceAndIsPublic(service, true);
-        return mapToDtoList(feedbacks);
+    /**
+     * One page of a service's public feedback, newest first. The cursor is the {@code nextCursor} of the
+     * previous page, or null for the first one; every page is a seek on the index, however deep it is.
+     */
+    public FeedbackPageDto getFeedbackByService(Long serviceId, String cursor, Integer limit) {
+        if (!serviceRepository.existsById(serviceId)) {
+            throw new ResourceNotFoundException("Service not found with id: " + serviceId);
+        }
+        int pageSize = pageSize(limit);
+        Cursor after = decodeCursor(cursor);
+        List<Feedback> feedbacks = after == null
+                ? feedbackRepository.findPublicByService(serviceId, Limit.of(pageSize + 1))
+                : feedbackRepository.findPublicByServiceAfter(serviceId, after.createdAt(), after.id(), Limit.of(pageSize + 1));
+        return toPage(feedbacks, pageSize);
     }
 
-    public List<FeedbackDto> getFeedbackByTherapist(Long therapistId) {
-        Therapist therapist = therapistRepository.findById(therapistId)
-                .orElseThrow(() -> new ResourceNotFoundException("Therapist not found with id: " + therapistId));
-
-        List<Feedback> feedbacks = feedbackRepository.findByTherapistAndIsPublic(therapist, true);
-        return mapToDtoList(feedbacks);
+    public FeedbackPageDto getFeedbackByTherapist(Long therapistId, String cursor, Integer limit) {
+        if (!therapistRepository.existsById(therapistId)) {
+            throw new ResourceNotFoundException("Therapist not found with id: " + therapistId);
+        }
+        int pageSize = pageSize(limit);
+        Cursor after = decodeCursor(cursor);
+        List<Feedback> feedbacks = after == null
+                ? feedbackRepository.findPublicByTherapist(therapistId, Limit.of(pageSize + 1))
+                : feedbackRepository.findPublicByTherapistAfter(therapistId, after.createdAt(), after.id(), Limit.of(pageSize + 1));
+        return toPage(feedbacks, pageSize);
     }
 
+    @Transactional
     public FeedbackDto createFeedback(FeedbackDto feedbackDto) {
         Booking booking = bookingRepository.findById(feedbackDto.getBookingId())
                 .orElseThrow(() -> new ResourceNotFoundException(
@@ -56,9 +83,55 @@ public class FeedbackService {
         feedback.setIsPublic(feedbackDto.getIsPublic() != null ? feedbackDto.getIsPublic() : true);
 
         Feedback savedFeedback = feedbackRepository.save(feedback);
+        ratingAggregateService.record(savedFeedback);
         return mapToDto(savedFeedback);
     }
 
+    public RatingSummaryDto getServiceRatingSummary(Long serviceId) {
+        return ratingAggregateService.getServiceSummary(serviceId);
+    }
+
+    public RatingSummaryDto getTherapistRatingSummary(Long therapistId) {
+        return ratingAggregateService.getTherapistSummary(therapistId);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    // One row more than the page is fetched, so whether there is a next page is known without a count
+    private FeedbackPageDto toPage(List<Feedback> feedbacks, int pageSize) {
+        boolean hasMore = feedbacks.size() > pageSize;
+        List<Feedback> page = hasMore ? feedbacks.subList(0, pageSize) : feedbacks;
+        Feedback last = hasMore ? page.get(page.size() - 1) : null;
+        return FeedbackPageDto.builder()
+                .items(mapToDtoList(page))
+                .nextCursor(last != null ? encodeCursor(new Cursor(last.getCreatedAt(), last.getId())) : null)
+                .build();
+    }
+
+    private static String encodeCursor(Cursor cursor) {
+        String value = cursor.createdAt() + "|" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
     private FeedbackDto mapToDto(Feedback feedback) {
         FeedbackDto dto = new FeedbackDto();
         dto.setId(feedback.getId());
@@ -74,4 +147,7 @@ public class FeedbackService {
                 .map(this::mapToDto)
                 .collect(Collectors.toList());
     }
+
+    private record Cursor(LocalDateTime createdAt, Long id) {
+    }
 }
@@ -1,14 +1,9 @@
 
 package com.skincare.service;
 
-import com.skincare.dto.ServiceDto;
-import com.skincare.dto.TherapistDto;
-import com.skincare.mapper.ServiceMapper;
-import com.skincare.mapper.TherapistMapper;
-import com.skincare.model.Service;
-import com.skincare.model.Therapist;
-import com.skincare.repository.ServiceRepository;
-import com.skincare.repository.TherapistRepository;
+import com.skincare.cache.CatalogCache;
+import com.skincare.cache.RenderedResponseCache;
+import com.skincare.config.OpeningHours;
 import lombok.RequiredArgsConstructor;
 
 import java.util.HashMap;
@@ -18,26 +13,32 @@ import java.util.Map;
 @org.springframework.stereotype.Service
 @RequiredArgsConstructor
 public class HomeService {
-    private final ServiceRepository serviceRepository;
-    private final TherapistRepository therapistRepository;
-    private final ServiceMapper serviceMapper;
-    private final TherapistMapper therapistMapper;
+    private final CatalogCache catalogCache;
+    private final RenderedResponseCache responseCache;
 
-    public Map<String, Object> getHomePageData() {
+    // The home page only changes with the catalog, schedule and policy never change at runtime
+    public RenderedResponseCache.RenderedResponse getHomePage() {
+        CatalogCache.CatalogSnapshot catalog = catalogCache.snapshot();
+        return responseCache.get("home", catalog.version(), () -> getHomePageData(catalog));
+    }
+
+    public RenderedResponseCache.RenderedResponse getSchedulePage() {
+        return responseCache.get("schedule", 0, this::getSchedule);
+    }
+
+    public RenderedResponseCache.RenderedResponse getPaymentPolicyPage() {
+        return responseCache.get("payment-policy", 0, this::getPaymentPolicy);
+    }
+
+    private Map<String, Object> getHomePageData(CatalogCache.CatalogSnapshot catalog) {
         Map<String, Object> homeData = new HashMap<>();
 
         // Add introduction
         homeData.put("introduction", getIntroduction());
 
-        // Add services
-        List<Service> services = serviceRepository.findAll();
-        List<ServiceDto> serviceDtos = serviceMapper.toDtoList(services);
-        homeData.put("services", serviceDtos);
-
-        // Add therapists
-        List<Therapist> therapists = therapistRepository.findAll();
-        List<TherapistDto> therapistDtos = therapistMapper.toDtoList(therapists);
-        homeData.put("therapists", therapistDtos);
+        // Add services and therapists
+        homeData.put("services", catalog.services());
+        homeData.put("therapists", catalog.therapists());
 
         // Add blog and news placeholders
         homeData.put("blog", getBlogPosts());
@@ -88,19 +89,20 @@ public class HomeService {
         return news;
     }
 
-    public Map<String, Object> getSchedule() {
+    private Map<String, Object> getSchedule() {
         Map<String, Object> schedule = new HashMap<>();
 
-        schedule.put("weekdays", "09:00 - 20:00");
-        schedule.put("saturday", "10:00 - 18:00");
-        schedule.put("sunday", "10:00 - 16:00");
-        schedule.put("holidayHours", "11:00 - 15:00");
-        schedule.put("specialNotes", "Appointments must be booked at least 24 hours in advance.");
+        schedule.put("weekdays", OpeningHours.describe(OpeningHours.WEEKDAY_OPEN, OpeningHours.WEEKDAY_CLOSE));
+        schedule.put("saturday", OpeningHours.describe(OpeningHours.SATURDAY_OPEN, OpeningHours.SATURDAY_CLOSE));
+        schedule.put("sunday", OpeningHours.describe(OpeningHours.SUNDAY_OPEN, OpeningHours.SUNDAY_CLOSE));
+        schedule.put("holidayHours", OpeningHours.describe(OpeningHours.HOLIDAY_OPEN, OpeningHours.HOLIDAY_CLOSE));
+        schedule.put("specialNotes", "Appointments must be booked at least " + OpeningHours.MIN_BOOKING_NOTICE_HOURS
+                + " hours in advance.");
 
         return schedule;
     }
 
-    public Map<String, Object> getPaymentPolicy() {
+    private Map<String, Object> getPaymentPolicy() {
         Map<String, Object> policy = new HashMap<>();
 
         policy.put("acceptedMethods", List.of("Cash", "Credit Card", "Bank Transfer", "Online Payment"));
@@ -0,0 +1,340 @@
+package com.skincare.service;
+
+import com.skincare.dto.RatingSummaryDto;
+import com.skincare.index.RatingLeaderboard;
+import com.skincare.model.Feedback;
+import com.skincare.model.RatingAggregate;
+import com.skincare.model.RatingAggregate.SubjectType;
+import com.skincare.repository.FeedbackRepository;
+import com.skincare.repository.RatingAggregateRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rating counts, sums and 1-5 histograms per service and per therapist. A committed rating only bumps striped
+ * in-memory counters, so feedback on a popular service never queues on its row lock; a periodic flush adds what
+ * piled up to {@code rating_aggregates} as deltas, so the table adds up across instances. Reads combine the last
+ * refresh of the table with the ratings this instance has not flushed yet. The feedback table is only scanned
+ * when the stored totals no longer match it, for instance on first start or after an instance stopped without
+ * flushing.
+ */
+@Service
+@RequiredArgsConstructor
+public class RatingAggregateService {
+    private static final int MAX_RATING = 5;
+
+    // Instances flushing the same subjects lock their rows in the same order
+    private static final Comparator<Subject> FLUSH_ORDER =
+            Comparator.comparing(Subject::type).thenComparing(Subject::id);
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingAggregateService.class);
+
+    private final RatingAggregateRepository ratingAggregateRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final RatingLeaderboard ratingLeaderboard;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Subject, Stripes> pending = new ConcurrentHashMap<>();
+    private final Stripes pendingOverall = new Stripes();
+    private volatile Totals stored = new Totals(Map.of(), new long[MAX_RATING]);
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final AtomicLong lastFlushSubjects = new AtomicLong();
+    private final AtomicLong lastRefreshRows = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        flush();
+        long feedbackCount = feedbackRepository.count();
+        long aggregatedCount = ratingAggregateRepository.sumRatingCount(SubjectType.SERVICE);
+        if (feedbackCount != aggregatedCount) {
+            logger.warn("Rating aggregates cover {} of {} feedback, rebuilding", aggregatedCount, feedbackCount);
+            transactionTemplate.executeWithoutResult(status -> rebuild());
+        }
+        refresh();
+        logger.info("Loaded {} rating aggregates", stored.bySubject().size());
+    }
+
+    // A rating committed while the feedback is being counted is counted here and flushed as well, which is why
+    // this only runs at startup and only when the totals are already off
+    private void rebuild() {
+        ratingAggregateRepository.deleteAllInBatch();
+        Map<Subject, long[]> histograms = new TreeMap<>(FLUSH_ORDER);
+        for (FeedbackRepository.RatingCount row : feedbackRepository.countRatingsByService()) {
+            histograms.computeIfAbsent(new Subject(SubjectType.SERVICE, row.getSubjectId()),
+                    s -> new long[MAX_RATING])[row.getRating() - 1] += row.getRatingCount();
+        }
+        for (FeedbackRepository.RatingCount row : feedbackRepository.countRatingsByTherapist()) {
+            histograms.computeIfAbsent(new Subject(SubjectType.THERAPIST, row.getSubjectId()),
+                    s -> new long[MAX_RATING])[row.getRating() - 1] += row.getRatingCount();
+        }
+        histograms.forEach(this::upsert);
+        rebuilds.increment();
+    }
+
+    /**
+     * Counts the rating once the caller's transaction commits. It reaches the table with the next flush.
+     */
+    public void record(Feedback feedback) {
+        Long serviceId = feedback.getService().getId();
+        Long therapistId = feedback.getTherapist() != null ? feedback.getTherapist().getId() : null;
+        int rating = feedback.getRating();
+        afterCommit(() -> accumulate(serviceId, therapistId, rating));
+    }
+
+    void accumulate(Long serviceId, Long therapistId, int rating) {
+        int star = rating - 1;
+        pendingOverall.stars[star].increment();
+        add(new Subject(SubjectType.SERVICE, serviceId), star);
+        if (therapistId != null) {
+            add(new Subject(SubjectType.THERAPIST, therapistId), star);
+        }
+    }
+
+    public RatingSummaryDto getServiceSummary(Long serviceId) {
+        return summarize(histogram(new Subject(SubjectType.SERVICE, serviceId)));
+    }
+
+    public RatingSummaryDto getTherapistSummary(Long therapistId) {
+        return summarize(histogram(new Subject(SubjectType.THERAPIST, therapistId)));
+    }
+
+    public RatingSummaryDto getOverallSummary() {
+        long[] histogram = stored.overall().clone();
+        pendingOverall.addTo(histogram);
+        return summarize(histogram);
+    }
+
+    /**
+     * Adds the ratings counted since the last flush to the table, all subjects in one transaction. When that
+     * fails they stay pending and go with the next flush.
+     */
+    @PreDestroy
+    @Scheduled(initialDelayString = "${skincare.app.ratings.flushIntervalMs:1000}",
+               fixedDelayString = "${skincare.app.ratings.flushIntervalMs:1000}")
+    public synchronized void flush() {
+        Map<Subject, long[]> deltas = new TreeMap<>(FLUSH_ORDER);
+        pending.forEach((subject, stripes) -> {
+            long[] delta = stripes.histogram();
+            if (count(delta) > 0) {
+                deltas.put(subject, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // Stored first and taken off the stripes after, so reads never miss a rating while it is in flight
+        stored = stored.plus(deltas, 1);
+        addPending(deltas, -1);
+        try {
+            transactionTemplate.executeWithoutResult(status -> deltas.forEach(this::upsert));
+            flushes.increment();
+            lastFlushSubjects.set(deltas.size());
+        } catch (RuntimeException e) {
+            addPending(deltas, 1);
+            stored = stored.plus(deltas, -1);
+            flushFailures.increment();
+            logger.warn("Could not flush rating aggregates for {} subjects, retrying with the next flush",
+                    deltas.size(), e);
+        }
+    }
+
+    /**
+     * Replaces the stored totals with the table, which holds what every instance has flushed. Subjects whose
+     * row is gone are dropped unless this instance still has ratings for them.
+     */
+    @Scheduled(initialDelayString = "${skincare.app.ratings.refreshIntervalMs:5000}",
+               fixedDelayString = "${skincare.app.ratings.refreshIntervalMs:5000}")
+    public synchronized void refresh() {
+        List<RatingAggregate> rows = ratingAggregateRepository.findAll();
+        Map<Subject, long[]> bySubject = new HashMap<>();
+        long[] overall = new long[MAX_RATING];
+        for (RatingAggregate row : rows) {
+            long[] histogram = {row.getOneStar(), row.getTwoStars(), row.getThreeStars(), row.getFourStars(),
+                    row.getFiveStars()};
+            bySubject.put(new Subject(row.getSubjectType(), row.getSubjectId()), histogram);
+            // Every feedback has a service, so the service rows add up to the overall totals
+            if (row.getSubjectType() == SubjectType.SERVICE) {
+                for (int i = 0; i < MAX_RATING; i++) {
+                    overall[i] += histogram[i];
+                }
+            }
+        }
+
+        Totals previous = stored;
+        stored = new Totals(Map.copyOf(bySubject), overall);
+        Set<Subject> subjects = new HashSet<>(previous.bySubject().keySet());
+        subjects.addAll(bySubject.keySet());
+        for (Subject subject : subjects) {
+            if (Arrays.equals(previous.bySubject().get(subject), bySubject.get(subject))) {
+                continue;
+            }
+            if (!bySubject.containsKey(subject) && count(histogram(subject)) == 0) {
+                ratingLeaderboard.remove(subject.type(), subject.id());
+            } else {
+                ratingLeaderboard.reposition(subject.type(), subject.id(), () -> histogram(subject));
+            }
+        }
+        refreshes.increment();
+        lastRefreshRows.set(rows.size());
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("subjects", stored.bySubject().size());
+        metrics.put("pendingRatings", count(pendingOverall.histogram()));
+        metrics.put("flushes", flushes.sum());
+        metrics.put("flushFailures", flushFailures.sum());
+        metrics.put("lastFlushSubjects", lastFlushSubjects.get());
+        metrics.put("refreshes", refreshes.sum());
+        metrics.put("lastRefreshRows", lastRefreshRows.get());
+        metrics.put("rebuilds", rebuilds.sum());
+        return metrics;
+    }
+
+    private void add(Subject subject, int star) {
+        pending.computeIfAbsent(subject, s -> new Stripes()).stars[star].increment();
+        ratingLeaderboard.reposition(subject.type(), subject.id(), () -> histogram(subject));
+    }
+
+    // The stripes keep counting meanwhile, so the deltas are added or taken off rather than reset
+    private void addPending(Map<Subject, long[]> deltas, int sign) {
+        deltas.forEach((subject, delta) -> {
+            Stripes stripes = pending.get(subject);
+            for (int i = 0; i < MAX_RATING; i++) {
+                stripes.stars[i].add(sign * delta[i]);
+                if (subject.type() == SubjectType.SERVICE) {
+                    pendingOverall.stars[i].add(sign * delta[i]);
+                }
+            }
+        });
+    }
+
+    private void upsert(Subject subject, long[] histogram) {
+        ratingAggregateRepository.upsert(subject.type().name(), subject.id(), count(histogram), sum(histogram),
+                histogram[0], histogram[1], histogram[2], histogram[3], histogram[4]);
+    }
+
+    private long[] histogram(Subject subject) {
+        long[] storedHistogram = stored.bySubject().get(subject);
+        long[] histogram = storedHistogram != null ? storedHistogram.clone() : new long[MAX_RATING];
+        Stripes stripes = pending.get(subject);
+        if (stripes != null) {
+            stripes.addTo(histogram);
+        }
+        return histogram;
+    }
+
+    private static RatingSummaryDto summarize(long[] histogram) {
+        long count = count(histogram);
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        for (int i = 0; i < MAX_RATING; i++) {
+            distribution.put(i + 1, histogram[i]);
+        }
+        return RatingSummaryDto.builder()
+                .ratingCount(count)
+                .averageRating(count > 0 ? (double) sum(histogram) / count : 0.0)
+                .distribution(distribution)
+                .build();
+    }
+
+    private static long count(long[] histogram) {
+        long count = 0;
+        for (long stars : histogram) {
+            count += stars;
+        }
+        return count;
+    }
+
+    private static long sum(long[] histogram) {
+        long sum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            sum += (i + 1) * histogram[i];
+        }
+        return sum;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Subject(SubjectType type, Long id) {
+    }
+
+    // Histograms are never changed once published, a flush or refresh installs new ones
+    private record Totals(Map<Subject, long[]> bySubject, long[] overall) {
+        private Totals plus(Map<Subject, long[]> deltas, int sign) {
+            Map<Subject, long[]> next = new HashMap<>(bySubject);
+            long[] nextOverall = overall.clone();
+            deltas.forEach((subject, delta) -> {
+                long[] histogram = next.containsKey(subject) ? next.get(subject).clone() : new long[MAX_RATING];
+                for (int i = 0; i < MAX_RATING; i++) {
+                    histogram[i] += sign * delta[i];
+                    if (subject.type() == SubjectType.SERVICE) {
+                        nextOverall[i] += sign * delta[i];
+                    }
+                }
+                next.put(subject, histogram);
+            });
+            return new Totals(Map.copyOf(next), nextOverall);
+        }
+    }
+
+    // One adder per star, so concurrent ratings for the same subject rarely contend
+    private static final class Stripes {
+        private final LongAdder[] stars = new LongAdder[MAX_RATING];
+
+        private Stripes() {
+            for (int i = 0; i < MAX_RATING; i++) {
+                stars[i] = new LongAdder();
+            }
+        }
+
+        private long[] histogram() {
+            long[] histogram = new long[MAX_RATING];
+            addTo(histogram);
+            return histogram;
+        }
+
+        private void addTo(long[] histogram) {
+            for (int i = 0; i < MAX_RATING; i++) {
+                histogram[i] += stars[i].sum();
+            }
+        }
+    }
+}
@@ -1,37 +1,75 @@
 
 package com.skincare.service;
 
+import com.skincare.cache.CatalogCache;
 import com.skincare.dto.ServiceDto;
 import com.skincare.exception.ResourceNotFoundException;
+import com.skincare.index.RatingLeaderboard;
+import com.skincare.index.ServiceSearchIndex;
+import com.skincare.index.ServiceSimilarityIndex;
 import com.skincare.mapper.ServiceMapper;
+import com.skincare.model.RatingAggregate;
 import com.skincare.model.Service;
 import com.skincare.repository.ServiceRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 
 @org.springframework.stereotype.Service
 @RequiredArgsConstructor
 public class ServiceService {
     private final ServiceRepository serviceRepository;
     private final ServiceMapper serviceMapper;
+    private final CatalogCache catalogCache;
+    private final ServiceSearchIndex searchIndex;
+    private final ServiceSimilarityIndex similarityIndex;
+    private final RatingLeaderboard ratingLeaderboard;
 
     public List<ServiceDto> getAllServices() {
-        return serviceMapper.toDtoList(serviceRepository.findAll());
+        return catalogCache.snapshot().services();
     }
 
     public ServiceDto getServiceById(Long id) {
-        return serviceRepository.findById(id)
-                .map(serviceMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + id));
+        ServiceDto service = catalogCache.snapshot().service(id);
+        if (service == null) {
+            throw new ResourceNotFoundException("Service not found with id: " + id);
+        }
+        return service;
+    }
+
+    public List<ServiceDto> searchServices(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    public List<ServiceDto> getAlsoBookedServices(Long id, int limit) {
+        CatalogCache.CatalogSnapshot catalog = catalogCache.snapshot();
+        if (!catalog.containsService(id)) {
+            throw new ResourceNotFoundException("Service not found with id: " + id);
+        }
+        return similarityIndex.neighbours(id, limit).stream()
+                .map(catalog::service)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public List<ServiceDto> getTopRatedServices(int limit) {
+        CatalogCache.CatalogSnapshot catalog = catalogCache.snapshot();
+        return ratingLeaderboard.top(RatingAggregate.SubjectType.SERVICE, limit, catalog::containsService)
+                .stream()
+                .map(catalog::service)
+                .toList();
     }
 
     @Transactional
     public ServiceDto createService(ServiceDto serviceDto) {
         Service service = serviceMapper.toEntity(serviceDto);
         Service savedService = serviceRepository.save(service);
-        return serviceMapper.toDto(savedService);
+        ServiceDto savedServiceDto = serviceMapper.toDto(savedService);
+        catalogCache.invalidate();
+        searchIndex.index(savedServiceDto);
+        return savedServiceDto;
     }
 
     @Transactional
@@ -41,7 +79,10 @@ public class ServiceService {
 
         serviceMapper.updateEntityFromDto(serviceDto, existingService);
         Service updatedService = serviceRepository.save(existingService);
-        return serviceMapper.toDto(updatedService);
+        ServiceDto updatedServiceDto = serviceMapper.toDto(updatedService);
+        catalogCache.invalidate();
+        searchIndex.index(updatedServiceDto);
+        return updatedServiceDto;
     }
 
     @Transactional
@@ -50,5 +91,7 @@ public class ServiceService {
             throw new ResourceNotFoundException("Service not found with id: " + id);
         }
         serviceRepository.deleteById(id);
+        catalogCache.invalidate();
+        searchIndex.delete(id);
     }
 }
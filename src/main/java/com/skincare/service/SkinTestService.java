@@ -1,42 +1,185 @@
 
 package com.skincare.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skincare.cache.CatalogCache;
+import com.skincare.cache.RecommendationCache;
+import com.skincare.dto.BulkSkinTestResultDto;
 import com.skincare.dto.ServiceDto;
 import com.skincare.dto.SkinTestDto;
 import com.skincare.exception.ResourceNotFoundException;
-import com.skincare.mapper.ServiceMapper;
-import com.skincare.model.Customer;
-import com.skincare.model.Service;
+import com.skincare.index.RecommendationIndex;
+import com.skincare.index.ServiceSimilarityIndex;
 import com.skincare.model.SkinTest;
 import com.skincare.repository.CustomerRepository;
-import com.skincare.repository.ServiceRepository;
-import com.skincare.repository.SkinTestRepository;
+import com.skincare.repository.SkinTestJdbcRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.transaction.annotation.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @org.springframework.stereotype.Service
 @RequiredArgsConstructor
 public class SkinTestService {
-    private final SkinTestRepository skinTestRepository;
+    public static final int IMPORT_CHUNK_SIZE = 500;
+
+    private static final Logger logger = LoggerFactory.getLogger(SkinTestService.class);
+
+    private final SkinTestWriter skinTestWriter;
+    private final SkinTestJdbcRepository skinTestJdbcRepository;
+    private final ObjectMapper objectMapper;
     private final CustomerRepository customerRepository;
-    private final ServiceRepository serviceRepository;
-    private final ServiceMapper serviceMapper;
+    private final RecommendationIndex recommendationIndex;
+    private final ServiceSimilarityIndex similarityIndex;
+    private final CatalogCache catalogCache;
+    private final RecommendationCache recommendationCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
 
-    @Transactional
-    public SkinTestDto createSkinTest(SkinTestDto skinTestDto) {
-        SkinTest skinTest = new SkinTest();
+    @Value("${skincare.app.recommendations.limit:10}")
+    private int recommendationLimit;
 
-        if (skinTestDto.getCustomerId() != null) {
-            Customer customer = customerRepository.findById(skinTestDto.getCustomerId())
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "Customer not found with id: " + skinTestDto.getCustomerId()));
-            skinTest.setCustomer(customer);
+    /**
+     * Validates the skin test and queues it for the background writer, it is persisted shortly after.
+     */
+    public void createSkinTest(SkinTestDto skinTestDto) {
+        if (skinTestDto.getCustomerId() != null && !customerRepository.existsById(skinTestDto.getCustomerId())) {
+            throw new ResourceNotFoundException("Customer not found with id: " + skinTestDto.getCustomerId());
+        }
+        skinTestWriter.submit(toEntity(skinTestDto));
+    }
+
+    /**
+     * Imports skin tests from a JSON array or newline-delimited JSON, read as a stream and written in chunks.
+     * Every record is validated like a single submission; each chunk resolves its customers with one query and
+     * is inserted as one batch in its own transaction. A malformed record ends the import, because the stream
+     * cannot be resynchronized after it.
+     */
+    public List<BulkSkinTestResultDto> importSkinTests(InputStream body) throws IOException {
+        long started = System.nanoTime();
+        List<BulkSkinTestResultDto> results = new ArrayList<>();
+        List<SkinTestDto> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        try (MappingIterator<SkinTestDto> records = objectMapper.readerFor(SkinTestDto.class).readValues(body)) {
+            while (true) {
+                SkinTestDto record;
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    record = records.nextValue();
+                } catch (JsonProcessingException e) {
+                    importChunk(chunk, results);
+                    results.add(new BulkSkinTestResultDto(results.size(), false,
+                            "Malformed record: " + e.getOriginalMessage()));
+                    return results;
+                }
+                chunk.add(record);
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    importChunk(chunk, results);
+                }
+            }
+        }
+        importChunk(chunk, results);
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - started);
+        logger.info("Processed {} skin test records in {} ms ({} records/s)", results.size(), elapsedNanos / 1_000_000,
+                results.size() * 1_000_000_000L / elapsedNanos);
+        return results;
+    }
+
+    private void importChunk(List<SkinTestDto> chunk, List<BulkSkinTestResultDto> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<Long> customerIds = new HashSet<>();
+        for (SkinTestDto record : chunk) {
+            if (record.getCustomerId() != null) {
+                customerIds.add(record.getCustomerId());
+            }
+        }
+        Set<Long> existing = customerIds.isEmpty() ? Set.of() : customerRepository.findExistingIds(customerIds);
+
+        int first = results.size();
+        List<SkinTest> valid = new ArrayList<>(chunk.size());
+        List<BulkSkinTestResultDto> validResults = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            SkinTestDto record = chunk.get(i);
+            String invalid = validate(record, existing);
+            if (invalid != null) {
+                results.add(new BulkSkinTestResultDto(first + i, false, invalid));
+                continue;
+            }
+            BulkSkinTestResultDto result = new BulkSkinTestResultDto(first + i, true, null);
+            results.add(result);
+            valid.add(toEntity(record));
+            validResults.add(result);
+        }
+
+        if (!valid.isEmpty()) {
+            try {
+                // All or nothing, so a client retrying after an error cannot end up with duplicates
+                transactionTemplate.executeWithoutResult(status -> skinTestJdbcRepository.batchInsert(valid));
+            } catch (DataAccessException | TransactionException e) {
+                logger.warn("Could not import a chunk of {} skin tests, importing them one by one: {}",
+                        valid.size(), e.getMessage());
+                importOneByOne(valid, validResults);
+            }
+        }
+        chunk.clear();
+    }
+
+    // Narrows a failed chunk down to the records that cannot be stored, the others still go in
+    private void importOneByOne(List<SkinTest> skinTests, List<BulkSkinTestResultDto> results) {
+        for (int i = 0; i < skinTests.size(); i++) {
+            SkinTest skinTest = skinTests.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> skinTestJdbcRepository.batchInsert(List.of(skinTest)));
+            } catch (DataAccessException | TransactionException e) {
+                logger.error("Could not import skin test record {}", results.get(i).getIndex(), e);
+                results.get(i).setSuccess(false);
+                results.get(i).setMessage("Could not be stored, please retry");
+            }
         }
+    }
 
+    // The constraints the single-record endpoint enforces through @Valid, plus the customer lookup
+    private String validate(SkinTestDto record, Set<Long> existingCustomerIds) {
+        Set<ConstraintViolation<SkinTestDto>> violations = validator.validate(record);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (record.getCustomerId() != null && !existingCustomerIds.contains(record.getCustomerId())) {
+            return "Customer not found with id: " + record.getCustomerId();
+        }
+        return null;
+    }
+
+    private SkinTest toEntity(SkinTestDto skinTestDto) {
+        SkinTest skinTest = new SkinTest();
+        if (skinTestDto.getCustomerId() != null) {
+            skinTest.setCustomer(customerRepository.getReferenceById(skinTestDto.getCustomerId()));
+        }
         skinTest.setSkinType(skinTestDto.getSkinType());
         skinTest.setSkinConcerns(skinTestDto.getSkinConcerns());
         skinTest.setOiliness(skinTestDto.getOiliness());
@@ -45,52 +188,35 @@ public class SkinTestService {
         skinTest.setPigmentation(skinTestDto.getPigmentation());
         skinTest.setWrinkles(skinTestDto.getWrinkles());
         skinTest.setAdditionalNotes(skinTestDto.getAdditionalNotes());
-
-        SkinTest savedSkinTest = skinTestRepository.save(skinTest);
-
-        SkinTestDto responseDto = new SkinTestDto();
-        responseDto.setId(savedSkinTest.getId());
-        if (savedSkinTest.getCustomer() != null) {
-            responseDto.setCustomerId(savedSkinTest.getCustomer().getId());
-        }
-        responseDto.setSkinType(savedSkinTest.getSkinType());
-        responseDto.setSkinConcerns(savedSkinTest.getSkinConcerns());
-        responseDto.setOiliness(savedSkinTest.getOiliness());
-        responseDto.setSensitivity(savedSkinTest.getSensitivity());
-        responseDto.setHydration(savedSkinTest.getHydration());
-        responseDto.setPigmentation(savedSkinTest.getPigmentation());
-        responseDto.setWrinkles(savedSkinTest.getWrinkles());
-        responseDto.setAdditionalNotes(savedSkinTest.getAdditionalNotes());
-
-        return responseDto;
+        skinTest.setCreatedAt(LocalDateTime.now());
+        return skinTest;
     }
 
     public List<ServiceDto> getRecommendedServices(SkinTestDto skinTestDto) {
-        // Implementation of recommendation algorithm based on skin test data
-        List<Service> allServices = serviceRepository.findAll();
-        List<Service> recommendedServices = new ArrayList<>();
-
-        // Simple algorithm - in a real system this would be more sophisticated
-        for (Service service : allServices) {
-            // Example logic - add services that match the skin type
-            if (service.getDescription() != null &&
-                    skinTestDto.getSkinType() != null &&
-                    service.getDescription().toLowerCase().contains(skinTestDto.getSkinType().toLowerCase())) {
-                recommendedServices.add(service);
-                continue;
-            }
-
-            // Add services that address specific concerns
-            if (service.getDescription() != null &&
-                    skinTestDto.getSkinConcerns() != null &&
-                    service.getDescription().toLowerCase().contains(skinTestDto.getSkinConcerns().toLowerCase())) {
-                recommendedServices.add(service);
-                continue;
-            }
+        return recommendationCache.get(skinTestDto, () -> computeRecommendedServices(skinTestDto));
+    }
 
-            // More recommendation logic can be added based on other parameters
+    private List<ServiceDto> computeRecommendedServices(SkinTestDto skinTestDto) {
+        List<ServiceDto> recommended = recommendationIndex.recommend(skinTestDto, recommendationLimit);
+        if (recommended.isEmpty() || recommended.size() >= recommendationLimit) {
+            return recommended;
         }
 
-        return serviceMapper.toDtoList(recommendedServices);
+        // Fill the remaining places with what customers rated alike to the best matches
+        CatalogCache.CatalogSnapshot catalog = catalogCache.snapshot();
+        Map<Long, ServiceDto> ranked = new LinkedHashMap<>();
+        recommended.forEach(service -> ranked.put(service.getId(), service));
+        for (ServiceDto service : recommended) {
+            for (Long neighbour : similarityIndex.neighbours(service.getId(), recommendationLimit)) {
+                if (ranked.size() >= recommendationLimit) {
+                    return List.copyOf(ranked.values());
+                }
+                ServiceDto related = catalog.service(neighbour);
+                if (related != null) {
+                    ranked.putIfAbsent(neighbour, related);
+                }
+            }
+        }
+        return List.copyOf(ranked.values());
     }
 }
@@ -0,0 +1,205 @@
+package com.skincare.service;
+
+import com.skincare.exception.ServiceBusyException;
+import com.skincare.model.SkinTest;
+import com.skincare.repository.SkinTestJdbcRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind for skin tests: submissions go into a bounded queue and a background thread inserts them in
+ * JDBC batches. A full queue rejects new submissions instead of slowing every request down; on shutdown the
+ * writer stops taking work and flushes what is left.
+ */
+@Service
+public class SkinTestWriter {
+    private static final long POLL_TIMEOUT_MS = 200;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private static final Logger logger = LoggerFactory.getLogger(SkinTestWriter.class);
+    // Rows that could not be written at all, kept apart so they can be routed to their own appender and replayed
+    private static final Logger deadLetters = LoggerFactory.getLogger(SkinTestWriter.class.getName() + ".deadLetter");
+
+    private final SkinTestJdbcRepository skinTestJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<SkinTest> queue;
+    private final int batchSize;
+    private final int maxRetries;
+    private final Thread writer = new Thread(this::run, "skin-test-writer");
+    // submit holds the read side while it checks running and enqueues, so nothing lands after shutdown's drain
+    private final ReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final AtomicLong lastBatchSize = new AtomicLong();
+
+    public SkinTestWriter(SkinTestJdbcRepository skinTestJdbcRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${skincare.app.skinTests.queueCapacity:10000}") int queueCapacity,
+                          @Value("${skincare.app.skinTests.batchSize:500}") int batchSize,
+                          @Value("${skincare.app.skinTests.maxRetries:3}") int maxRetries) {
+        this.skinTestJdbcRepository = skinTestJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void submit(SkinTest skinTest) {
+        lifecycle.readLock().lock();
+        try {
+            if (!running || !queue.offer(skinTest)) {
+                rejected.increment();
+                throw new ServiceBusyException("Too many skin test submissions, please retry shortly");
+            }
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+        accepted.increment();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        lifecycle.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        // Not interrupted, so a batch in flight finishes instead of being cut off halfway through the insert
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+
+        List<SkinTest> batch = new ArrayList<>();
+        queue.drainTo(batch);
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            write(batch.subList(from, Math.min(from + batchSize, batch.size())));
+        }
+        logger.info("Skin test writer stopped after writing {} skin tests", written.sum());
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueDepth", queue.size());
+        metrics.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        metrics.put("batchSize", batchSize);
+        metrics.put("lastBatchSize", lastBatchSize.get());
+        metrics.put("accepted", accepted.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("written", written.sum());
+        metrics.put("batches", batches.sum());
+        metrics.put("failures", failures.sum());
+        metrics.put("deadLettered", deadLettered.sum());
+        return metrics;
+    }
+
+    private void run() {
+        List<SkinTest> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                SkinTest first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                break;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes the batch in one transaction, retrying transient failures a bounded number of times. Anything
+     * else means some row is bad, so the batch is split into single-row transactions and only the rows that
+     * still fail are dead-lettered.
+     */
+    private void write(List<SkinTest> batch) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                insert(batch);
+                batches.increment();
+                lastBatchSize.set(batch.size());
+                return;
+            } catch (TransientDataAccessException | RecoverableDataAccessException
+                     | CannotGetJdbcConnectionException | TransactionException e) {
+                failures.increment();
+                if (attempt >= maxRetries || !sleep()) {
+                    logger.error("Giving up on a batch of {} skin tests after {} attempts", batch.size(), attempt + 1, e);
+                    break;
+                }
+                logger.warn("Could not write {} skin tests, retrying: {}", batch.size(), e.getMessage());
+            } catch (DataAccessException e) {
+                failures.increment();
+                logger.warn("Batch of {} skin tests rejected, writing them one by one: {}", batch.size(), e.getMessage());
+                break;
+            }
+        }
+
+        for (SkinTest skinTest : batch) {
+            try {
+                insert(List.of(skinTest));
+            } catch (DataAccessException | TransactionException e) {
+                deadLettered.increment();
+                deadLetters.error("customerId={} skinType={} skinConcerns={} oiliness={} sensitivity={} hydration={} "
+                                + "pigmentation={} wrinkles={} additionalNotes={} createdAt={} error={}",
+                        skinTest.getCustomer() != null ? skinTest.getCustomer().getId() : null,
+                        skinTest.getSkinType(), skinTest.getSkinConcerns(), skinTest.getOiliness(),
+                        skinTest.getSensitivity(), skinTest.getHydration(), skinTest.getPigmentation(),
+                        skinTest.getWrinkles(), skinTest.getAdditionalNotes(), skinTest.getCreatedAt(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    // Without a transaction a failing batch could leave part of its rows committed, and a retry would insert them again
+    private void insert(List<SkinTest> skinTests) {
+        transactionTemplate.executeWithoutResult(status -> skinTestJdbcRepository.batchInsert(skinTests));
+        written.add(skinTests.size());
+    }
+
+    private static boolean sleep() {
+        try {
+            Thread.sleep(RETRY_DELAY_MS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
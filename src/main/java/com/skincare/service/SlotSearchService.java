@@ -0,0 +1,113 @@
+package com.skincare.service;
+
+import com.skincare.config.OpeningHours;
+import com.skincare.dto.AvailableSlotDto;
+import com.skincare.exception.InvalidRangeException;
+import com.skincare.exception.ResourceNotFoundException;
+import com.skincare.index.TherapistAvailabilityIndex;
+import com.skincare.model.Service;
+import com.skincare.repository.ServiceRepository;
+import com.skincare.repository.TherapistRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.skincare.index.TherapistAvailabilityIndex.QUANTUM_MINUTES;
+import static com.skincare.index.TherapistAvailabilityIndex.WORDS_PER_DAY;
+
+@org.springframework.stereotype.Service
+@RequiredArgsConstructor
+public class SlotSearchService {
+    public static final int MAX_SLOTS = 100;
+
+    private final ServiceRepository serviceRepository;
+    private final TherapistRepository therapistRepository;
+    private final TherapistAvailabilityIndex availabilityIndex;
+
+    // Days are walked one by one until enough slots are found, so a fully booked range costs its length
+    @Value("${skincare.app.slots.maxSearchDays:31}")
+    private int maxSearchDays;
+
+    public List<AvailableSlotDto> findAvailableSlots(Long serviceId, LocalDateTime from, LocalDateTime to, int limit) {
+        Service service = serviceRepository.findById(serviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + serviceId));
+        List<Long> therapistIds = therapistRepository.findIdsByServiceId(serviceId);
+        return findAvailableSlots(therapistIds, TherapistAvailabilityIndex.duration(service.getDurationMinutes()),
+                from, to, limit);
+    }
+
+    List<AvailableSlotDto> findAvailableSlots(List<Long> therapistIds, int durationMinutes,
+                                              LocalDateTime from, LocalDateTime to, int limit) {
+        checkRange(from, to);
+        List<AvailableSlotDto> slots = new ArrayList<>();
+        int max = Math.min(Math.max(limit, 1), MAX_SLOTS);
+        if (therapistIds.isEmpty()) {
+            return slots;
+        }
+
+        LocalDateTime notice = LocalDateTime.now().plusHours(OpeningHours.MIN_BOOKING_NOTICE_HOURS);
+        LocalDateTime earliest = from.isAfter(notice) ? from : notice;
+        int length = (durationMinutes + QUANTUM_MINUTES - 1) / QUANTUM_MINUTES;
+        long[][] startable = new long[therapistIds.size()][];
+
+        for (LocalDate day = earliest.toLocalDate(); !day.isAfter(to.toLocalDate()) && slots.size() < max;
+             day = day.plusDays(1)) {
+            int open = openingQuantum(day);
+            int close = closingQuantum(day);
+            for (int i = 0; i < therapistIds.size(); i++) {
+                startable[i] = startableQuanta(availabilityIndex.busyQuanta(therapistIds.get(i), day), open, close, length);
+            }
+
+            for (int q = open; q + length <= close && slots.size() < max; q++) {
+                LocalDateTime start = day.atStartOfDay().plusMinutes((long) q * QUANTUM_MINUTES);
+                if (start.isBefore(earliest) || start.plusMinutes(durationMinutes).isAfter(to)) {
+                    continue;
+                }
+                for (int i = 0; i < therapistIds.size() && slots.size() < max; i++) {
+                    if ((startable[i][q >> 6] & (1L << (q & 63))) != 0) {
+                        slots.add(new AvailableSlotDto(therapistIds.get(i), start, start.plusMinutes(durationMinutes)));
+                    }
+                }
+            }
+        }
+        return slots;
+    }
+
+    private void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (to.isBefore(from)) {
+            throw new InvalidRangeException("Slot search must end after it starts");
+        }
+        if (from.plusDays(maxSearchDays).isBefore(to)) {
+            throw new InvalidRangeException("Slot search can span at most " + maxSearchDays + " days");
+        }
+    }
+
+    // Single pass over the day: a quantum can start a slot once the free run ending length quanta later is long enough
+    private long[] startableQuanta(long[] busy, int open, int close, int length) {
+        long[] startable = new long[WORDS_PER_DAY];
+        int run = 0;
+        for (int q = open; q < close; q++) {
+            if ((busy[q >> 6] & (1L << (q & 63))) != 0) {
+                run = 0;
+                continue;
+            }
+            if (++run >= length) {
+                int start = q - length + 1;
+                startable[start >> 6] |= 1L << (start & 63);
+            }
+        }
+        return startable;
+    }
+
+    private int openingQuantum(LocalDate day) {
+        return OpeningHours.opening(day.getDayOfWeek()).toSecondOfDay() / 60 / QUANTUM_MINUTES;
+    }
+
+    private int closingQuantum(LocalDate day) {
+        return OpeningHours.closing(day.getDayOfWeek()).toSecondOfDay() / 60 / QUANTUM_MINUTES;
+    }
+}
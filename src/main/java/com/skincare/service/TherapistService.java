@@ -1,9 +1,12 @@
 
 package com.skincare.service;
 
+import com.skincare.cache.CatalogCache;
 import com.skincare.dto.TherapistDto;
 import com.skincare.exception.ResourceNotFoundException;
+import com.skincare.index.RatingLeaderboard;
 import com.skincare.mapper.TherapistMapper;
+import com.skincare.model.RatingAggregate;
 import com.skincare.model.Therapist;
 import com.skincare.repository.TherapistRepository;
 import lombok.RequiredArgsConstructor;
@@ -17,21 +20,34 @@ import java.util.List;
 public class TherapistService {
     private final TherapistRepository therapistRepository;
     private final TherapistMapper therapistMapper;
+    private final CatalogCache catalogCache;
+    private final RatingLeaderboard ratingLeaderboard;
 
     public List<TherapistDto> getAllTherapists() {
-        return therapistMapper.toDtoList(therapistRepository.findAll());
+        return catalogCache.snapshot().therapists();
+    }
+
+    public List<TherapistDto> getTopRatedTherapists(int limit) {
+        CatalogCache.CatalogSnapshot catalog = catalogCache.snapshot();
+        return ratingLeaderboard.top(RatingAggregate.SubjectType.THERAPIST, limit, catalog::containsTherapist)
+                .stream()
+                .map(catalog::therapist)
+                .toList();
     }
 
     public TherapistDto getTherapistById(Long id) {
-        return therapistRepository.findById(id)
-                .map(therapistMapper::toDto)
-                .orElseThrow(() -> new ResourceNotFoundException("Therapist not found with id: " + id));
+        TherapistDto therapist = catalogCache.snapshot().therapist(id);
+        if (therapist == null) {
+            throw new ResourceNotFoundException("Therapist not found with id: " + id);
+        }
+        return therapist;
     }
 
     @Transactional
     public TherapistDto createTherapist(TherapistDto therapistDto) {
         Therapist therapist = therapistMapper.toEntity(therapistDto);
         Therapist savedTherapist = therapistRepository.save(therapist);
+        catalogCache.invalidate();
         return therapistMapper.toDto(savedTherapist);
     }
 
@@ -42,6 +58,7 @@ public class TherapistService {
         
         therapistMapper.updateEntityFromDto(therapistDto, existingTherapist);
         Therapist updatedTherapist = therapistRepository.save(existingTherapist);
+        catalogCache.invalidate();
         return therapistMapper.toDto(updatedTherapist);
     }
 }
@@ -0,0 +1,104 @@
+package com.skincare.cache;
+
+import com.skincare.dto.ServiceDto;
+import com.skincare.dto.TherapistDto;
+import com.skincare.mapper.ServiceMapper;
+import com.skincare.mapper.TherapistMapper;
+import com.skincare.model.Service;
+import com.skincare.repository.ServiceRepository;
+import com.skincare.repository.TherapistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogCacheTest {
+    private final ServiceRepository serviceRepository = mock(ServiceRepository.class);
+    private final TherapistRepository therapistRepository = mock(TherapistRepository.class);
+    private final ServiceMapper serviceMapper = mock(ServiceMapper.class);
+    private final TherapistMapper therapistMapper = mock(TherapistMapper.class);
+    private final CatalogCache catalogCache =
+            new CatalogCache(serviceRepository, therapistRepository, serviceMapper, therapistMapper);
+
+    // Each build maps to a service named after it, so a snapshot tells which build it came from
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        when(serviceRepository.findAll()).thenReturn(List.of(new Service()));
+        when(serviceMapper.toDtoList(anyList())).thenAnswer(invocation -> List.of(service(builds.incrementAndGet())));
+        when(therapistMapper.toDtoList(anyList())).thenReturn(List.of(TherapistDto.builder()
+                .id(7L).firstName("Ana").lastName("Lee").serviceIds(Set.of(1L)).build()));
+    }
+
+    @Test
+    void readsShareTheSnapshotsFrozenDtos() {
+        catalogCache.load();
+        CatalogCache.CatalogSnapshot catalog = catalogCache.snapshot();
+
+        assertThat(catalog.services()).isSameAs(catalogCache.snapshot().services());
+        assertThat(catalog.service(1L)).isSameAs(catalog.services().get(0));
+        assertThat(catalog.therapist(7L)).isSameAs(catalog.therapists().get(0));
+        assertThatThrownBy(() -> catalog.service(1L).setName("Renamed"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> catalog.therapist(7L).getServiceIds().add(2L))
+                .isInstanceOf(UnsupportedOperationException.class);
+
+        ServiceDto copy = catalog.service(1L).toBuilder().build();
+        copy.setName("Renamed");
+        assertThat(copy).isNotEqualTo(catalog.service(1L));
+        assertThat(catalog.service(1L).getName()).isEqualTo("Build 1");
+    }
+
+    @Test
+    void aBuildOvertakenByANewerGenerationIsNotInstalled() {
+        catalogCache.load();
+        // The second build is still reading when another commit invalidates, and finishes last
+        AtomicBoolean overtaken = new AtomicBoolean();
+        when(serviceRepository.findAll()).thenAnswer(invocation -> {
+            if (overtaken.compareAndSet(false, true)) {
+                catalogCache.invalidate();
+            }
+            return List.of(new Service());
+        });
+
+        catalogCache.invalidate();
+
+        CatalogCache.CatalogSnapshot catalog = catalogCache.snapshot();
+        assertThat(catalog.version()).isEqualTo(2);
+        assertThat(catalog.service(1L).getName()).isEqualTo("Build 2");
+    }
+
+    @Test
+    void aFailedRefreshDropsTheSnapshotAndTheNextReadReloads() {
+        catalogCache.load();
+        when(serviceRepository.findAll())
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(List.of(new Service()));
+
+        catalogCache.invalidate();
+
+        assertThat(catalogCache.metrics()).containsEntry("version", null).containsEntry("misses", 0L);
+
+        CatalogCache.CatalogSnapshot catalog = catalogCache.snapshot();
+
+        assertThat(catalog.version()).isEqualTo(1);
+        assertThat(catalog.service(1L).getName()).isEqualTo("Build 2");
+        assertThat(catalogCache.metrics()).containsEntry("misses", 1L).containsEntry("version", 1L);
+    }
+
+    private static ServiceDto service(int build) {
+        return ServiceDto.builder()
+                .id(1L).name("Build " + build).price(BigDecimal.TEN).durationMinutes(60).build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.skincare.cache;
+
+import com.skincare.dto.ServiceDto;
+import com.skincare.dto.SkinTestDto;
+import com.skincare.index.ServiceSimilarityIndex;
+import com.skincare.mapper.ServiceMapper;
+import com.skincare.mapper.TherapistMapper;
+import com.skincare.repository.ServiceRepository;
+import com.skincare.repository.TherapistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecommendationCacheTest {
+    private final ServiceMapper serviceMapper = mock(ServiceMapper.class);
+    private final CatalogCache catalogCache = new CatalogCache(mock(ServiceRepository.class),
+            mock(TherapistRepository.class), serviceMapper, mock(TherapistMapper.class));
+    private final RecommendationCache recommendationCache =
+            new RecommendationCache(catalogCache, mock(ServiceSimilarityIndex.class), 10);
+    private final AtomicInteger computed = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        when(serviceMapper.toDtoList(anyList())).thenReturn(List.of(ServiceDto.builder()
+                .id(1L).name("Hydrating Facial").price(BigDecimal.TEN).durationMinutes(60).build()));
+    }
+
+    @Test
+    void cachedRecommendationsCannotBeChangedByTheirReaders() {
+        SkinTestDto skinTest = SkinTestDto.builder().skinConcerns("Dry, dull").hydration(2).build();
+
+        List<ServiceDto> first = recommendationCache.get(skinTest, this::recommend);
+        List<ServiceDto> second = recommendationCache.get(skinTest, this::recommend);
+
+        assertThat(second).isSameAs(first);
+        assertThat(computed).hasValue(1);
+        assertThatThrownBy(() -> second.get(0).setName("Changed"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> second.add(second.get(0)))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThat(catalogCache.snapshot().service(1L).getName()).isEqualTo("Hydrating Facial");
+    }
+
+    @Test
+    void sameProfileInAnotherOrderIsAHitUntilTheCatalogChanges() {
+        recommendationCache.get(SkinTestDto.builder().skinConcerns("Dry, dull").build(), this::recommend);
+        recommendationCache.get(SkinTestDto.builder().skinConcerns("dull DRY").build(), this::recommend);
+
+        assertThat(computed).hasValue(1);
+
+        catalogCache.invalidate();
+        recommendationCache.get(SkinTestDto.builder().skinConcerns("dull DRY").build(), this::recommend);
+
+        assertThat(computed).hasValue(2);
+    }
+
+    private List<ServiceDto> recommend() {
+        computed.incrementAndGet();
+        return new ArrayList<>(catalogCache.snapshot().services());
+    }
+}
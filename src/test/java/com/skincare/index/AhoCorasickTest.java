@@ -0,0 +1,31 @@
+package com.skincare.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AhoCorasickTest {
+    @Test
+    void reportsOverlappingPatternsThroughTheirFailLinks() {
+        AhoCorasick matcher = AhoCorasick.compile(List.of("he", "she", "his", "hers"));
+        List<Integer> matches = new ArrayList<>();
+
+        matcher.scan("ushers", matches::add);
+
+        // "she" and "he" end on the same character, "hers" is only reached through the fail link of "she"
+        assertThat(matches).containsExactly(1, 0, 3);
+    }
+
+    @Test
+    void paddedPatternsOnlyMatchWholeWords() {
+        AhoCorasick matcher = AhoCorasick.compile(List.of(" oil ", " oily ", " tone "));
+        List<Integer> matches = new ArrayList<>();
+
+        matcher.scan(" oily toner boil ", matches::add);
+
+        assertThat(matches).containsExactly(1);
+    }
+}
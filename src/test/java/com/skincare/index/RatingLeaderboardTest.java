@@ -0,0 +1,110 @@
+package com.skincare.index;
+
+import com.skincare.model.RatingAggregate.SubjectType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RatingLeaderboardTest {
+    private static final SubjectType SERVICE = SubjectType.SERVICE;
+
+    private final RatingLeaderboard leaderboard = new RatingLeaderboard(3.5, 5);
+
+    @Test
+    void manyGoodRatingsOutrankASingleFiveStarOne() {
+        // (3.5 * 5 + 5) / 6 = 3.75 against (3.5 * 5 + 40) / 15 = 3.83
+        rate(1L, 0, 0, 0, 0, 1);
+        rate(2L, 0, 0, 0, 10, 0);
+
+        assertThat(leaderboard.top(SERVICE, 10, id -> true)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void equalScoresAreOrderedByRatingCountThenId() {
+        // Every one of these smooths to exactly the prior mean of 3.5
+        rate(4L, 0, 0, 0, 0, 0);
+        rate(3L, 0, 0, 1, 1, 0);
+        rate(2L, 0, 0, 1, 1, 0);
+        rate(1L, 0, 1, 0, 0, 1);
+        rate(5L, 0, 0, 2, 2, 0);
+
+        assertThat(leaderboard.top(SERVICE, 10, id -> true)).containsExactly(5L, 1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void repositionMovesTheSubjectWithoutLeavingItsOldPlace() {
+        rate(1L, 0, 0, 0, 0, 4);
+        rate(2L, 0, 0, 0, 4, 0);
+        rate(3L, 0, 0, 4, 0, 0);
+
+        rate(1L, 10, 0, 0, 0, 4);
+        rate(3L, 0, 0, 4, 0, 20);
+
+        assertThat(leaderboard.top(SERVICE, 10, id -> true)).containsExactly(3L, 2L, 1L);
+        assertThat(leaderboard.top(SubjectType.THERAPIST, 10, id -> true)).isEmpty();
+    }
+
+    @Test
+    void filteredSubjectsAreSkippedWithoutComingUpShort() {
+        for (long id = 1; id <= 5; id++) {
+            rate(id, 0, 0, 0, 0, id);
+        }
+
+        assertThat(leaderboard.top(SERVICE, 2, id -> id != 5L)).containsExactly(4L, 3L);
+        assertThat(leaderboard.top(SERVICE, 0, id -> true)).isEmpty();
+    }
+
+    @Test
+    void racingRepositionsLeaveEachSubjectOnceAtItsNewestCounts() throws Exception {
+        int subjects = 8;
+        Map<Long, AtomicLongArray> histograms = new ConcurrentHashMap<>();
+        for (long id = 0; id < subjects; id++) {
+            histograms.put(id, new AtomicLongArray(5));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        long id = i % subjects;
+                        AtomicLongArray histogram = histograms.get(id);
+                        histogram.incrementAndGet((int) (id % 5));
+                        leaderboard.reposition(SERVICE, id, () -> snapshot(histogram));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Subject id gets 1000 ratings of id % 5 + 1 stars; subjects on the same stars tie and go by id
+        assertThat(leaderboard.top(SERVICE, 100, id -> true)).containsExactly(4L, 3L, 2L, 7L, 1L, 6L, 0L, 5L);
+    }
+
+    private void rate(Long id, long... stars) {
+        leaderboard.reposition(SERVICE, id, () -> stars);
+    }
+
+    private static long[] snapshot(AtomicLongArray histogram) {
+        long[] stars = new long[histogram.length()];
+        for (int i = 0; i < stars.length; i++) {
+            stars[i] = histogram.get(i);
+        }
+        return stars;
+    }
+}
@@ -0,0 +1,83 @@
+package com.skincare.index;
+
+import com.skincare.cache.CatalogCache;
+import com.skincare.dto.ServiceDto;
+import com.skincare.dto.SkinTestDto;
+import com.skincare.mapper.ServiceMapper;
+import com.skincare.mapper.TherapistMapper;
+import com.skincare.repository.ServiceRepository;
+import com.skincare.repository.TherapistRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecommendationIndexTest {
+    private final ServiceMapper serviceMapper = mock(ServiceMapper.class);
+    private final CatalogCache catalogCache = new CatalogCache(mock(ServiceRepository.class),
+            mock(TherapistRepository.class), serviceMapper, mock(TherapistMapper.class));
+    private final RecommendationIndex recommendationIndex = new RecommendationIndex(catalogCache);
+
+    @Test
+    void keywordsOnlyMatchWholeWordsOfTheSkinTest() {
+        catalog(service(1L, "Toner"), service(2L, "Tone Mask"), service(3L, "Boil Wash"));
+
+        assertThat(recommend(SkinTestDto.builder().skinConcerns("toner, oil").build(), 10))
+                .extracting(ServiceDto::getId)
+                .containsExactly(1L);
+        assertThat(recommend(SkinTestDto.builder().skinType("Tone").skinConcerns("masks").build(), 10))
+                .extracting(ServiceDto::getId)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void bestScoresComeFirstAndTheLimitKeepsTheBest() {
+        // Oiliness weight after normalizing: 1, 1/sqrt(2), 1/sqrt(5) and 0
+        catalog(service(3L, "Oil Hydrating Moisture"), service(4L, "Hydrating Wrap"),
+                service(1L, "Oily Acne Peel"), service(2L, "Oil Hydrating Facial"));
+        SkinTestDto oily = SkinTestDto.builder().oiliness(10).build();
+
+        assertThat(recommend(oily, 10)).extracting(ServiceDto::getId).containsExactly(1L, 2L, 3L);
+        assertThat(recommend(oily, 2)).extracting(ServiceDto::getId).containsExactly(1L, 2L);
+        assertThat(recommend(oily, 0)).isEmpty();
+    }
+
+    @Test
+    void keywordBonusLiftsAServiceAboveAStrongerFeatureMatch() {
+        catalog(service(1L, "Oily Acne Peel"), service(2L, "Oil Hydrating Facial"));
+
+        SkinTestDto skinTest = SkinTestDto.builder().oiliness(10).skinConcerns("I want a facial").build();
+
+        assertThat(recommend(skinTest, 10)).extracting(ServiceDto::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void recommendationsAreTheCatalogsSharedFrozenDtos() {
+        catalog(service(1L, "Oily Acne Peel"));
+
+        ServiceDto recommended = recommend(SkinTestDto.builder().oiliness(10).build(), 10).get(0);
+
+        assertThat(recommended).isSameAs(catalogCache.snapshot().service(1L));
+        assertThatThrownBy(() -> recommended.setPrice(BigDecimal.ONE))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private List<ServiceDto> recommend(SkinTestDto skinTest, int limit) {
+        return recommendationIndex.recommend(skinTest, limit);
+    }
+
+    private void catalog(ServiceDto... services) {
+        when(serviceMapper.toDtoList(anyList())).thenReturn(List.of(services));
+        catalogCache.invalidate();
+    }
+
+    private static ServiceDto service(Long id, String name) {
+        return ServiceDto.builder().id(id).name(name).price(BigDecimal.TEN).durationMinutes(60).build();
+    }
+}
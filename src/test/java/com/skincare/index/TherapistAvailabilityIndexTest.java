@@ -0,0 +1,165 @@
+package com.skincare.index;
+
+import com.skincare.exception.BookingConflictException;
+import com.skincare.repository.BookingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class TherapistAvailabilityIndexTest {
+    private static final Long THERAPIST_ID = 7L;
+    private static final LocalDate DAY = LocalDate.now().plusDays(3);
+
+    private final TherapistAvailabilityIndex index = new TherapistAvailabilityIndex(mock(BookingRepository.class));
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void concurrentReservationsNeverOverlap() throws Exception {
+        int threads = 16;
+        int attemptsPerThread = 2_000;
+        Map<Long, LocalDateTime> held = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            long firstBookingId = (long) t * attemptsPerThread;
+            workers.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (long bookingId = firstBookingId; bookingId < firstBookingId + attemptsPerThread; bookingId++) {
+                    LocalDateTime slot = DAY.atTime(8, 0).plusMinutes(15L * random.nextInt(48));
+                    try {
+                        index.reserve(bookingId, THERAPIST_ID, slot, 60);
+                        held.put(bookingId, slot);
+                    } catch (BookingConflictException e) {
+                        continue;
+                    }
+                    if (random.nextInt(3) == 0) {
+                        held.remove(bookingId);
+                        index.release(bookingId, THERAPIST_ID);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        List<LocalDateTime> starts = held.values().stream().sorted().toList();
+        for (int i = 1; i < starts.size(); i++) {
+            assertThat(starts.get(i)).isAfterOrEqualTo(starts.get(i - 1).plusMinutes(60));
+        }
+        assertThat(bitCount(index.busyQuanta(THERAPIST_ID, DAY))).isEqualTo(starts.size() * 4);
+    }
+
+    @Test
+    void rollbackDoesNotRestoreASlotTakenMeanwhile() {
+        index.reserve(1L, THERAPIST_ID, DAY.atTime(10, 0), 60);
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.reserve(1L, THERAPIST_ID, DAY.atTime(14, 0), 60);
+        List<TransactionSynchronization> moveOfBookingOne = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        index.reserve(2L, THERAPIST_ID, DAY.atTime(10, 30), 60);
+        moveOfBookingOne.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Only booking 2 holds the morning, and booking 1's rolled back move no longer blocks the afternoon
+        assertThat(bitCount(index.busyQuanta(THERAPIST_ID, DAY))).isEqualTo(4);
+        index.reserve(3L, THERAPIST_ID, DAY.atTime(14, 0), 60);
+        assertThatThrownBy(() -> index.reserve(4L, THERAPIST_ID, DAY.atTime(10, 0), 60))
+                .isInstanceOf(BookingConflictException.class);
+    }
+
+    @Test
+    void rollbackRestoresTheFreePreviousSlot() {
+        index.reserve(1L, THERAPIST_ID, DAY.atTime(10, 0), 60);
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.reserve(1L, THERAPIST_ID, DAY.atTime(14, 0), 60);
+        List<TransactionSynchronization> move = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        move.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThatThrownBy(() -> index.reserve(2L, THERAPIST_ID, DAY.atTime(10, 30), 60))
+                .isInstanceOf(BookingConflictException.class);
+        index.reserve(3L, THERAPIST_ID, DAY.atTime(14, 0), 60);
+    }
+
+    @Test
+    void bookingAcrossMidnightIsRepaintedOnEachDay() {
+        LocalDate nextDay = DAY.plusDays(1);
+        index.reserve(1L, THERAPIST_ID, DAY.atTime(23, 0), 120);
+        index.reserve(2L, THERAPIST_ID, nextDay.atTime(2, 0), 60);
+
+        index.release(2L, THERAPIST_ID);
+
+        assertThat(quanta(index.busyQuanta(THERAPIST_ID, DAY))).containsExactly(92, 93, 94, 95);
+        assertThat(quanta(index.busyQuanta(THERAPIST_ID, nextDay))).containsExactly(0, 1, 2, 3);
+
+        index.reserve(1L, THERAPIST_ID, nextDay.atTime(10, 0), 60);
+
+        assertThat(quanta(index.busyQuanta(THERAPIST_ID, DAY))).isEmpty();
+        assertThat(quanta(index.busyQuanta(THERAPIST_ID, nextDay))).containsExactly(40, 41, 42, 43);
+    }
+
+    @Test
+    void bookingLongerThanADayKeepsItsLastDayAfterANeighbourLeaves() {
+        LocalDate lastDay = DAY.plusDays(2);
+        // 22:00 until 02:00 two days later, so it starts more than a day before its last day
+        index.reserve(1L, THERAPIST_ID, DAY.atTime(22, 0), 28 * 60);
+        index.reserve(2L, THERAPIST_ID, lastDay.atTime(3, 0), 60);
+
+        index.release(2L, THERAPIST_ID);
+
+        assertThat(quanta(index.busyQuanta(THERAPIST_ID, lastDay))).containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+        assertThat(bitCount(index.busyQuanta(THERAPIST_ID, DAY.plusDays(1))))
+                .isEqualTo(TherapistAvailabilityIndex.QUANTA_PER_DAY);
+    }
+
+    private static List<Integer> quanta(long[] words) {
+        List<Integer> quanta = new ArrayList<>();
+        for (int q = 0; q < words.length * 64; q++) {
+            if ((words[q >> 6] & (1L << (q & 63))) != 0) {
+                quanta.add(q);
+            }
+        }
+        return quanta;
+    }
+
+    private static int bitCount(long[] words) {
+        int bits = 0;
+        for (long word : words) {
+            bits += Long.bitCount(word);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,98 @@
+package com.skincare.security.jwt;
+
+import com.skincare.security.services.UserDetailsImpl;
+import com.skincare.security.services.UserDetailsServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthTokenFilterTest {
+    private final JwtUtils jwtUtils = JwtUtilsTest.jwtUtils(60_000);
+    private final UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+    private final TokenDenylist tokenDenylist = mock(TokenDenylist.class);
+    private final AuthTokenFilter filter = new AuthTokenFilter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "tokenDenylist", tokenDenylist);
+        ReflectionTestUtils.setField(filter, "jwtEnabled", true);
+        ReflectionTestUtils.setField(filter, "claimsAuthentication", true);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void userComesFromTheClaimsWithoutALookup() throws Exception {
+        Authentication authentication = filter(jwtUtils.generateJwtToken(JwtUtilsTest.user()));
+
+        assertThat(((UserDetailsImpl) authentication.getPrincipal()).getId()).isEqualTo(42L);
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void tokensWithoutIdentityClaimsFallBackToTheLookup() throws Exception {
+        UserDetailsImpl stored = new UserDetailsImpl(42L, "ana", "ana@example.com", "hash", 7L, null,
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+        when(userDetailsService.loadUserByUsername("ana")).thenReturn(stored);
+
+        Authentication authentication = filter(JwtUtilsTest.legacyToken("ana"));
+
+        assertThat(authentication.getPrincipal()).isSameAs(stored);
+    }
+
+    @Test
+    void claimsAuthenticationCanBeTurnedOff() throws Exception {
+        ReflectionTestUtils.setField(filter, "claimsAuthentication", false);
+        UserDetailsImpl stored = JwtUtilsTest.user();
+        when(userDetailsService.loadUserByUsername("ana")).thenReturn(stored);
+
+        Authentication authentication = filter(jwtUtils.generateJwtToken(JwtUtilsTest.user()));
+
+        assertThat(authentication.getPrincipal()).isSameAs(stored);
+    }
+
+    @Test
+    void revokedAndInvalidTokensLeaveTheRequestAnonymous() throws Exception {
+        when(tokenDenylist.isRevoked(any())).thenReturn(true);
+        assertThat(filter(jwtUtils.generateJwtToken(JwtUtilsTest.user()))).isNull();
+
+        when(tokenDenylist.isRevoked(any())).thenReturn(false);
+        assertThat(filter(JwtUtilsTest.jwtUtils(-1_000).generateJwtToken(JwtUtilsTest.user()))).isNull();
+        assertThat(filter("garbage")).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    private Authentication filter(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
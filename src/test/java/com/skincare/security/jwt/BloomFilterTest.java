@@ -0,0 +1,65 @@
+package com.skincare.security.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+    private static final int ELEMENTS = 20_000;
+
+    @Test
+    void everyAddedElementIsFoundAndFalsePositivesStayNearTheTarget() {
+        BloomFilter filter = BloomFilter.create(ELEMENTS, 0.01);
+        List<String> added = jtis(ELEMENTS);
+        added.forEach(filter::add);
+
+        assertThat(added).allMatch(filter::mightContain);
+        long falsePositives = jtis(ELEMENTS).stream().filter(filter::mightContain).count();
+        assertThat(falsePositives).isLessThan(ELEMENTS * 2 / 100);
+    }
+
+    @Test
+    void concurrentAddsSharingWordsAreNotLost() throws Exception {
+        // Small enough that the writers keep setting bits in the same words
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+        List<List<String>> batches = List.of(jtis(2_000), jtis(2_000), jtis(2_000), jtis(2_000));
+
+        ExecutorService executor = Executors.newFixedThreadPool(batches.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<String> batch : batches) {
+                futures.add(executor.submit(() -> batch.forEach(filter::add)));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).allMatch(filter::mightContain));
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = BloomFilter.create(0, 0.01);
+
+        assertThat(jtis(1_000)).noneMatch(filter::mightContain);
+    }
+
+    private static List<String> jtis(int count) {
+        List<String> jtis = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            jtis.add(UUID.randomUUID().toString());
+        }
+        return jtis;
+    }
+}
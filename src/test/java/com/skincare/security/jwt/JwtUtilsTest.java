@@ -0,0 +1,97 @@
+package com.skincare.security.jwt;
+
+import com.skincare.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTest {
+    static final String SECRET = "c2tpbmNhcmVIZXJvVGVzdFNlY3JldEtleUZvckp3dFRva2VuU2lnbmluZzIwMjU=";
+
+    private final JwtUtils jwtUtils = jwtUtils(60_000);
+
+    @Test
+    void claimsFromTheCachedParserDescribeTheUser() {
+        String token = jwtUtils.generateJwtToken(user());
+        Object parser = ReflectionTestUtils.getField(jwtUtils, "parser");
+
+        Claims claims = jwtUtils.parseClaims(token);
+        UserDetailsImpl user = jwtUtils.getUserDetailsFromClaims(claims);
+
+        assertThat(jwtUtils.parseClaims(jwtUtils.generateJwtToken(user()))).isNotNull();
+        assertThat(ReflectionTestUtils.getField(jwtUtils, "parser")).isSameAs(parser);
+        assertThat(claims.getId()).isNotBlank();
+        assertThat(user.getId()).isEqualTo(42L);
+        assertThat(user.getUsername()).isEqualTo("ana");
+        assertThat(user.getEmail()).isEqualTo("ana@example.com");
+        assertThat(user.getCustomerId()).isEqualTo(7L);
+        assertThat(user.getTherapistId()).isNull();
+        assertThat(user.getPassword()).isNull();
+        assertThat(user.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_CUSTOMER");
+    }
+
+    @Test
+    void expiredTokensAreRejected() {
+        String token = jwtUtils(-1_000).generateJwtToken(user());
+
+        assertThat(jwtUtils.parseClaims(token)).isNull();
+    }
+
+    @Test
+    void tamperedTokensAreRejected() {
+        String token = jwtUtils.generateJwtToken(user());
+        String[] parts = token.split("\\.");
+        String otherPayload = jwtUtils.generateJwtToken(new UserDetailsImpl(1L, "admin", "admin@example.com", null,
+                null, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")))).split("\\.")[1];
+        String signedElsewhere = Jwts.builder().subject("ana")
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET.replace('c', 'd'))), Jwts.SIG.HS256)
+                .compact();
+
+        assertThat(jwtUtils.parseClaims(parts[0] + "." + otherPayload + "." + parts[2])).isNull();
+        assertThat(jwtUtils.parseClaims(parts[0] + "." + parts[1] + ".")).isNull();
+        assertThat(jwtUtils.parseClaims(signedElsewhere)).isNull();
+        assertThat(jwtUtils.parseClaims("not.a.token")).isNull();
+        assertThat(jwtUtils.parseClaims("")).isNull();
+    }
+
+    @Test
+    void tokensWithoutIdentityClaimsDescribeNoUser() {
+        Claims claims = jwtUtils.parseClaims(legacyToken("ana"));
+
+        assertThat(claims.getSubject()).isEqualTo("ana");
+        assertThat(jwtUtils.getUserDetailsFromClaims(claims)).isNull();
+    }
+
+    static JwtUtils jwtUtils(int expirationMs) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", expirationMs);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    // Tokens issued before the identity claims were added only carry the subject
+    static String legacyToken(String username) {
+        return Jwts.builder()
+                .subject(username)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    static UserDetailsImpl user() {
+        return new UserDetailsImpl(42L, "ana", "ana@example.com", "secret", 7L, null,
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+    }
+}
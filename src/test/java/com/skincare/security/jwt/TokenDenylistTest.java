@@ -0,0 +1,96 @@
+package com.skincare.security.jwt;
+
+import com.skincare.model.RevokedToken;
+import com.skincare.repository.RevokedTokenRepository;
+import com.skincare.security.services.UserDetailsCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Each save commits on its own, as it does behind a logout, so a duplicate jti fails like it would in production
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TokenDenylist.class, UserDetailsCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenDenylistTest {
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @AfterEach
+    void tearDown() {
+        revokedTokenRepository.deleteAll();
+    }
+
+    @Test
+    void revokedTokensAreAlwaysRejected() {
+        String jti = UUID.randomUUID().toString();
+
+        tokenDenylist.revoke(jti, inAnHour());
+
+        assertThat(tokenDenylist.isRevoked(jti)).isTrue();
+        assertThat(tokenDenylist.isRevoked(UUID.randomUUID().toString())).isFalse();
+        assertThat(revokedTokenRepository.findAll()).extracting(RevokedToken::getJti).containsExactly(jti);
+
+        tokenDenylist.refresh();
+
+        assertThat(tokenDenylist.isRevoked(jti)).isTrue();
+    }
+
+    @Test
+    void refreshPicksUpRevocationsFromOtherInstances() {
+        String jti = UUID.randomUUID().toString();
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti).expiresAt(LocalDateTime.now().plusHours(1)).build());
+
+        assertThat(tokenDenylist.isRevoked(jti)).isFalse();
+
+        tokenDenylist.refresh();
+
+        assertThat(tokenDenylist.isRevoked(jti)).isTrue();
+    }
+
+    @Test
+    void revokingATokenAnotherInstanceRevokedIsANoOp() {
+        String jti = UUID.randomUUID().toString();
+        TokenDenylist otherInstance = new TokenDenylist(revokedTokenRepository, 1_000);
+        otherInstance.revoke(jti, inAnHour());
+
+        tokenDenylist.revoke(jti, inAnHour());
+
+        assertThat(tokenDenylist.isRevoked(jti)).isTrue();
+        assertThat(revokedTokenRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void refreshPurgesExpiredRevocations() {
+        String expired = UUID.randomUUID().toString();
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(expired).expiresAt(LocalDateTime.now().minusMinutes(1)).build());
+        String live = UUID.randomUUID().toString();
+        tokenDenylist.revoke(live, inAnHour());
+
+        tokenDenylist.refresh();
+
+        assertThat(tokenDenylist.isRevoked(expired)).isFalse();
+        assertThat(tokenDenylist.isRevoked(live)).isTrue();
+        assertThat(revokedTokenRepository.findAll()).extracting(RevokedToken::getJti).containsExactly(live);
+    }
+
+    private static Date inAnHour() {
+        return new Date(System.currentTimeMillis() + 3_600_000);
+    }
+}
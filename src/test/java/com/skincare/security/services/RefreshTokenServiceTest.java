@@ -0,0 +1,136 @@
+package com.skincare.security.services;
+
+import com.skincare.model.RefreshToken;
+import com.skincare.model.User;
+import com.skincare.repository.RefreshTokenRepository;
+import com.skincare.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({RefreshTokenService.class, UserDetailsCache.class})
+class RefreshTokenServiceTest {
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("ada");
+        user.setEmail("ada@example.com");
+        user.setPassword("secret");
+        user = userRepository.saveAndFlush(user);
+    }
+
+    @Test
+    void rotationSpendsTheTokenAndKeepsTheFamilyExpiry() {
+        String first = refreshTokenService.issue(user.getId());
+        entityManager.flush();
+        entityManager.clear();
+        LocalDateTime familyExpiry = single().getExpiresAt();
+        entityManager.clear();
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+        entityManager.clear();
+
+        assertThat(rotation).isNotNull();
+        assertThat(rotation.user().getId()).isEqualTo(user.getId());
+        assertThat(rotation.refreshToken()).isNotEqualTo(first);
+        List<RefreshToken> tokens = refreshTokenRepository.findAll();
+        assertThat(tokens).hasSize(2)
+                .allSatisfy(token -> assertThat(token.getExpiresAt()).isEqualTo(familyExpiry))
+                .allSatisfy(token -> assertThat(token.isRevoked()).isFalse());
+        assertThat(tokens).filteredOn(RefreshToken::isUsed).hasSize(1);
+
+        entityManager.clear();
+        assertThat(refreshTokenService.rotate(rotation.refreshToken())).isNotNull();
+    }
+
+    @Test
+    void reusingASpentTokenRevokesTheFamily() {
+        String first = refreshTokenService.issue(user.getId());
+        entityManager.clear();
+        String second = refreshTokenService.rotate(first).refreshToken();
+        entityManager.clear();
+
+        assertThat(refreshTokenService.rotate(first)).isNull();
+        entityManager.clear();
+
+        assertThat(refreshTokenRepository.findAll()).hasSize(2).allSatisfy(token -> assertThat(token.isRevoked()).isTrue());
+        assertThat(refreshTokenService.rotate(second)).isNull();
+    }
+
+    @Test
+    void concurrentRefreshWithTheSameTokenRevokesTheFamily() {
+        String first = refreshTokenService.issue(user.getId());
+        entityManager.clear();
+        assertThat(refreshTokenService.rotate(first)).isNotNull();
+
+        // Not cleared: the loser of a race still holds the row it read before the winner marked it used
+        assertThat(refreshTokenService.rotate(first)).isNull();
+        entityManager.clear();
+
+        assertThat(refreshTokenRepository.findAll()).allSatisfy(token -> assertThat(token.isRevoked()).isTrue());
+    }
+
+    @Test
+    void expiredTokenIsRejectedWithoutRevokingTheFamily() {
+        String first = refreshTokenService.issue(user.getId());
+        single().setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(refreshTokenService.rotate(first)).isNull();
+        entityManager.clear();
+
+        RefreshToken token = single();
+        assertThat(token.isUsed()).isFalse();
+        assertThat(token.isRevoked()).isFalse();
+    }
+
+    @Test
+    void inactiveUserCannotRefreshAndLosesTheFamily() {
+        String first = refreshTokenService.issue(user.getId());
+        user.setActive(false);
+        userRepository.saveAndFlush(user);
+        entityManager.clear();
+
+        assertThat(refreshTokenService.rotate(first)).isNull();
+        entityManager.clear();
+
+        assertThat(single().isRevoked()).isTrue();
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertThat(refreshTokenService.rotate("not-a-token")).isNull();
+    }
+
+    private RefreshToken single() {
+        List<RefreshToken> tokens = refreshTokenRepository.findAll();
+        assertThat(tokens).hasSize(1);
+        return tokens.get(0);
+    }
+}
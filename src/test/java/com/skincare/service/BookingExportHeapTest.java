@@ -0,0 +1,94 @@
+package com.skincare.service;
+
+import com.skincare.model.Customer;
+import com.skincare.model.Service;
+import com.skincare.repository.CustomerRepository;
+import com.skincare.repository.ServiceRepository;
+import com.skincare.security.services.UserDetailsCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports a generated dataset far larger than the heap; run through the export-heap profile, which sets the row
+ * count and a small -Xmx. The data sits in an H2 file database so only the export itself competes for the heap.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({BookingExportService.class, UserDetailsCache.class})
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:file:./target/export-heap/skincare;MODE=MySQL;CACHE_SIZE=8192")
+@EnabledIfSystemProperty(named = "skincare.test.exportRows", matches = "\\d+")
+class BookingExportHeapTest {
+    private static final long MAX_HEAP_BYTES = 256L * 1024 * 1024;
+    private static final int CHUNK_ROWS = 100_000;
+    private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Autowired
+    private BookingExportService bookingExportService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private ServiceRepository serviceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exportStreamsEveryRowWithinASmallHeap() throws IOException {
+        assertThat(Runtime.getRuntime().maxMemory()).as("heap limit").isLessThanOrEqualTo(MAX_HEAP_BYTES);
+        long rows = Long.getLong("skincare.test.exportRows");
+        Customer customer = customerRepository.save(Customer.builder().firstName("Ada").lastName("Lovelace").build());
+        Service service = serviceRepository.save(
+                Service.builder().name("Facial").price(new BigDecimal("80.00")).durationMinutes(60).build());
+        for (long first = 1; first <= rows; first += CHUNK_ROWS) {
+            jdbcTemplate.update("INSERT INTO bookings (id, customer_id, service_id, appointment_time, status, amount, " +
+                            "is_paid, payment_method, created_at, updated_at, version) " +
+                            "SELECT X, CAST(? AS BIGINT), CAST(? AS BIGINT), DATEADD(MINUTE, X, CAST(? AS TIMESTAMP)), 'COMPLETED', 80.00, TRUE, 'CASH', " +
+                            "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0 FROM SYSTEM_RANGE(CAST(? AS BIGINT), CAST(? AS BIGINT))",
+                    customer.getId(), service.getId(), START, first, Math.min(first + CHUNK_ROWS - 1, rows));
+        }
+
+        CountingOutputStream out = new CountingOutputStream();
+        long exported = bookingExportService.export(START, START.plusMinutes(rows + 1),
+                BookingExportService.ExportFormat.NDJSON, out);
+
+        assertThat(exported).isEqualTo(rows);
+        // Far more than the heap could hold had the rows been materialized
+        assertThat(out.bytes).isGreaterThan(MAX_HEAP_BYTES);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.skincare.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skincare.model.Booking;
+import com.skincare.model.Customer;
+import com.skincare.model.Service;
+import com.skincare.repository.BookingRepository;
+import com.skincare.security.services.UserDetailsCache;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({BookingExportService.class, UserDetailsCache.class})
+class BookingExportServiceTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+    @Autowired
+    private BookingExportService bookingExportService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = Customer.builder().firstName("Ada").lastName("Lovelace").build();
+        Service service = Service.builder().name("Peel, \"deep\"").price(new BigDecimal("80.00")).durationMinutes(60).build();
+        entityManager.persist(customer);
+        entityManager.persist(service);
+        for (int day = 0; day < 3; day++) {
+            bookingRepository.save(Booking.builder()
+                    .customer(customer)
+                    .service(service)
+                    .appointmentTime(START.plusDays(day).withHour(10))
+                    .amount(new BigDecimal("80.00"))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void csvQuotesFieldsAndKeepsTheRange() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = bookingExportService.export(START, START.plusDays(1).plusHours(23),
+                BookingExportService.ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("id,appointmentTime,status");
+        assertThat(lines[1]).contains(",\"Peel, \"\"deep\"\"\",").contains("2025-03-01T10:00");
+        assertThat(lines[2]).contains("2025-03-02T10:00");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = bookingExportService.export(START, START.plusDays(3), BookingExportService.ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("serviceName").asText()).isEqualTo("Peel, \"deep\"");
+        assertThat(first.get("status").asText()).isEqualTo("BOOKED");
+    }
+}
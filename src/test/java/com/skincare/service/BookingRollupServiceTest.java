@@ -0,0 +1,112 @@
+package com.skincare.service;
+
+import com.skincare.model.Booking;
+import com.skincare.model.BookingRollup;
+import com.skincare.model.Customer;
+import com.skincare.model.Service;
+import com.skincare.repository.BookingRepository;
+import com.skincare.repository.BookingRollupRepository;
+import com.skincare.security.services.UserDetailsCache;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({BookingRollupService.class, UserDetailsCache.class})
+class BookingRollupServiceTest {
+    private static final LocalDateTime APPOINTMENT = LocalDateTime.of(2030, 3, 4, 10, 0);
+
+    @Autowired
+    private BookingRollupService bookingRollupService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingRollupRepository rollupRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Customer customer;
+    private Service service;
+
+    @BeforeEach
+    void setUp() {
+        customer = Customer.builder().firstName("Ada").lastName("Lovelace").build();
+        service = Service.builder().name("Facial").price(new BigDecimal("80.00")).durationMinutes(60).build();
+        entityManager.persist(customer);
+        entityManager.persist(service);
+    }
+
+    @Test
+    void bookingsInTheSameUnpaidCellShareOneRow() {
+        bookingRollupService.recordCreated(booking());
+        bookingRollupService.recordCreated(booking());
+
+        List<BookingRollup> rows = rollups();
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getBookingCount()).isEqualTo(2);
+        assertThat(rows.get(0).getPaymentMethod()).isNull();
+    }
+
+    @Test
+    void changesMoveCountsBetweenCells() {
+        Booking booking = booking();
+        bookingRollupService.recordCreated(booking);
+        BookingRollupService.Contribution before = bookingRollupService.contributionOf(booking);
+
+        booking.setIsPaid(true);
+        booking.setPaymentMethod(Booking.PaymentMethod.CASH);
+        bookingRollupService.recordChange(before, booking);
+
+        List<BookingRollup> rows = rollups();
+        assertThat(rows).extracting(BookingRollup::getBookingCount).containsExactlyInAnyOrder(0L, 1L);
+        assertThat(rows).filteredOn(BookingRollup::isPaid).singleElement()
+                .satisfies(row -> {
+                    assertThat(row.getPaymentMethod()).isEqualTo(Booking.PaymentMethod.CASH);
+                    assertThat(row.getRevenue()).isEqualByComparingTo("80.00");
+                });
+    }
+
+    @Test
+    void rebuildReplacesTheRangeFromBookings() {
+        for (int i = 0; i < 3; i++) {
+            bookingRollupService.recordCreated(booking());
+        }
+        bookingRollupService.recordCreated(booking());
+
+        int cells = bookingRollupService.rebuild(LocalDate.of(2030, 3, 1), LocalDate.of(2030, 3, 31));
+
+        assertThat(cells).isEqualTo(1);
+        assertThat(rollups()).singleElement()
+                .extracting(BookingRollup::getBookingCount).isEqualTo(4L);
+    }
+
+    private Booking booking() {
+        return bookingRepository.saveAndFlush(Booking.builder()
+                .customer(customer)
+                .service(service)
+                .appointmentTime(APPOINTMENT)
+                .amount(new BigDecimal("80.00"))
+                .build());
+    }
+
+    private List<BookingRollup> rollups() {
+        entityManager.flush();
+        entityManager.clear();
+        return rollupRepository.findAll();
+    }
+}
@@ -0,0 +1,169 @@
+package com.skincare.service;
+
+import com.skincare.dto.BulkBookingResultDto;
+import com.skincare.exception.BookingConflictException;
+import com.skincare.index.TherapistAvailabilityIndex;
+import com.skincare.mapper.BookingMapperImpl;
+import com.skincare.model.Booking;
+import com.skincare.model.BookingRollup;
+import com.skincare.model.Customer;
+import com.skincare.model.Service;
+import com.skincare.model.Therapist;
+import com.skincare.repository.BookingJdbcRepository;
+import com.skincare.repository.BookingRepository;
+import com.skincare.repository.BookingRollupRepository;
+import com.skincare.security.services.UserDetailsCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({BookingService.class, BookingJdbcRepository.class, BookingMapperImpl.class, BookingRollupService.class,
+        TherapistAvailabilityIndex.class, UserDetailsCache.class})
+class BookingServiceTransitionTest {
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingRollupService bookingRollupService;
+
+    @Autowired
+    private BookingRollupRepository rollupRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Customer customer = Customer.builder().firstName("Ada").lastName("Lovelace").build();
+        Service service = Service.builder().name("Facial").price(new BigDecimal("80.00")).durationMinutes(60).build();
+        entityManager.persist(customer);
+        entityManager.persist(service);
+        booking = bookingRepository.saveAndFlush(Booking.builder()
+                .customer(customer)
+                .service(service)
+                .appointmentTime(LocalDateTime.now().plusDays(2))
+                .amount(new BigDecimal("80.00"))
+                .build());
+        bookingRollupService.recordCreated(booking);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void transitionIsOneGuardedUpdateBeforeTheBookingIsRead() {
+        statistics.clear();
+
+        bookingService.checkInBooking(booking.getId());
+
+        // Guarded UPDATE, read for the response, and the two rollup upserts
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getStatus())
+                .isEqualTo(Booking.BookingStatus.CHECKED_IN);
+    }
+
+    @Test
+    void transitionFromALaterStateIsStillOneUpdate() {
+        bookingService.checkInBooking(booking.getId());
+        entityManager.clear();
+        statistics.clear();
+
+        bookingService.cancelBooking(booking.getId(), "Allergic reaction");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        Booking cancelled = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertThat(cancelled.getStatus()).isEqualTo(Booking.BookingStatus.CANCELLED);
+        assertThat(cancelled.getPreviousStatus()).isEqualTo(Booking.BookingStatus.CHECKED_IN);
+    }
+
+    @Test
+    void therapistAssignmentIsGuardedOnTheTherapistItReplaces() {
+        Therapist therapist = Therapist.builder().firstName("Tess").lastName("Ray").build();
+        entityManager.persist(therapist);
+        entityManager.flush();
+
+        assertThat(bookingService.assignTherapist(booking.getId(), therapist.getId()).getTherapistId())
+                .isEqualTo(therapist.getId());
+
+        // A writer that read the booking before the assignment no longer matches
+        assertThat(bookingRepository.assignTherapist(booking.getId(), List.of(Booking.BookingStatus.BOOKED), null,
+                therapist, LocalDateTime.now())).isZero();
+    }
+
+    @Test
+    void rejectedTransitionReportsTheCurrentStatus() {
+        bookingService.cancelBooking(booking.getId(), "Changed plans");
+
+        assertThatThrownBy(() -> bookingService.checkInBooking(booking.getId()))
+                .isInstanceOf(BookingConflictException.class)
+                .hasMessageContaining("in status CANCELLED");
+    }
+
+    @Test
+    void rollupsFollowTheStateTheBookingLeft() {
+        bookingService.checkInBooking(booking.getId());
+        bookingService.processPayment(booking.getId(), Booking.PaymentMethod.CASH);
+        bookingService.cancelBooking(booking.getId(), "Allergic reaction");
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(rollupRepository.findAll())
+                .filteredOn(rollup -> rollup.getBookingCount() != 0)
+                .singleElement()
+                .satisfies(rollup -> {
+                    assertThat(rollup.getStatus()).isEqualTo(Booking.BookingStatus.CANCELLED);
+                    assertThat(rollup.getPaymentMethod()).isEqualTo(Booking.PaymentMethod.CASH);
+                    assertThat(rollup.getRevenue()).isEqualByComparingTo("80.00");
+                });
+        assertThat(rollupRepository.findAll()).extracting(BookingRollup::getBookingCount).allMatch(count -> count >= 0);
+    }
+
+    @Test
+    void paymentIsAppliedOnlyOnce() {
+        bookingService.processPayment(booking.getId(), Booking.PaymentMethod.CASH);
+
+        assertThatThrownBy(() -> bookingService.processPayment(booking.getId(), Booking.PaymentMethod.ONLINE))
+                .isInstanceOf(BookingConflictException.class);
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getPaymentMethod())
+                .isEqualTo(Booking.PaymentMethod.CASH);
+    }
+
+    @Test
+    void bulkTransitionReportsEachBooking() {
+        bookingService.cancelBooking(booking.getId(), "Changed plans");
+        Booking second = bookingRepository.saveAndFlush(booking.toBuilder().id(null).version(null).build());
+        entityManager.clear();
+
+        assertThat(bookingService.checkInBookings(List.of(booking.getId(), second.getId(), -1L)))
+                .extracting(BulkBookingResultDto::isSuccess)
+                .containsExactly(false, true, false);
+        entityManager.clear();
+        assertThat(bookingRepository.findById(second.getId()).orElseThrow().getStatus())
+                .isEqualTo(Booking.BookingStatus.CHECKED_IN);
+    }
+}
@@ -0,0 +1,110 @@
+package com.skincare.service;
+
+import com.skincare.index.RatingLeaderboard;
+import com.skincare.model.Booking;
+import com.skincare.model.Customer;
+import com.skincare.model.Service;
+import com.skincare.model.Therapist;
+import com.skincare.repository.BookingRepository;
+import com.skincare.security.services.UserDetailsCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({DashboardService.class, BookingRollupService.class, RatingAggregateService.class, RatingLeaderboard.class,
+        UserDetailsCache.class})
+class DashboardServiceQueryCountTest {
+    private static final int STATEMENT_BUDGET = 5;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Customer customer;
+    private Service service;
+    private Therapist therapist;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        customer = Customer.builder().firstName("Ada").lastName("Lovelace").email("ada@example.com").build();
+        service = Service.builder().name("Facial").price(new BigDecimal("80.00")).durationMinutes(60).build();
+        entityManager.persist(customer);
+        entityManager.persist(service);
+        therapist = Therapist.builder().firstName("Tess").lastName("Ray").services(Set.of(service)).build();
+        entityManager.persist(therapist);
+    }
+
+    @Test
+    void dashboardIssuesTheSameSmallNumberOfStatementsRegardlessOfRowCount() {
+        addBookings(3);
+        long fewRows = statementsFor(dashboardService::getDashboardData);
+
+        addBookings(60);
+        long manyRows = statementsFor(dashboardService::getDashboardData);
+
+        assertThat(fewRows).isLessThanOrEqualTo(STATEMENT_BUDGET);
+        assertThat(manyRows).isEqualTo(fewRows);
+    }
+
+    @Test
+    void dashboardAggregatesInTheDatabase() {
+        addBookings(7);
+
+        Map<String, Object> data = dashboardService.getDashboardData();
+
+        assertThat(data.get("totalBookings")).isEqualTo(7L);
+        assertThat((BigDecimal) data.get("totalRevenue")).isEqualByComparingTo("560.00");
+        assertThat((java.util.List<?>) data.get("recentBookings")).hasSize(5);
+    }
+
+    private void addBookings(int count) {
+        for (int i = 0; i < count; i++) {
+            Booking booking = bookingRepository.save(Booking.builder()
+                    .customer(customer)
+                    .service(service)
+                    .therapist(therapist)
+                    .appointmentTime(LocalDateTime.now().plusDays(2).plusHours(i))
+                    .status(Booking.BookingStatus.COMPLETED)
+                    .amount(new BigDecimal("80.00"))
+                    .paymentMethod(Booking.PaymentMethod.CASH)
+                    .build());
+            // onCreate always starts a booking unpaid, so settle it the way the payment flow does
+            booking.setIsPaid(true);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long statementsFor(Runnable action) {
+        statistics.clear();
+        action.run();
+        entityManager.clear();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,114 @@
+package com.skincare.service;
+
+import com.skincare.dto.FeedbackPageDto;
+import com.skincare.index.RatingLeaderboard;
+import com.skincare.model.Booking;
+import com.skincare.model.Customer;
+import com.skincare.model.Feedback;
+import com.skincare.model.Service;
+import com.skincare.model.Therapist;
+import com.skincare.security.services.UserDetailsCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({FeedbackService.class, RatingAggregateService.class, RatingLeaderboard.class, UserDetailsCache.class})
+class FeedbackServiceQueryBudgetTest {
+    // The existence check and the page query, however many rows the page holds
+    private static final int PAGE_BUDGET = 2;
+
+    @Autowired
+    private FeedbackService feedbackService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Customer customer;
+    private Service service;
+    private Therapist therapist;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        customer = Customer.builder().firstName("Ada").lastName("Lovelace").build();
+        service = Service.builder().name("Facial").price(new BigDecimal("80.00")).durationMinutes(60).build();
+        entityManager.persist(customer);
+        entityManager.persist(service);
+        therapist = Therapist.builder().firstName("Tess").lastName("Ray").services(Set.of(service)).build();
+        entityManager.persist(therapist);
+    }
+
+    @Test
+    void servicePagesStayWithinBudget() {
+        addFeedback(3);
+        assertThat(statementsFor(() -> feedbackService.getFeedbackByService(service.getId(), null, 20)))
+                .isLessThanOrEqualTo(PAGE_BUDGET);
+
+        addFeedback(40);
+        FeedbackPageDto[] first = new FeedbackPageDto[1];
+        assertThat(statementsFor(() -> first[0] = feedbackService.getFeedbackByService(service.getId(), null, 20)))
+                .isLessThanOrEqualTo(PAGE_BUDGET);
+        assertThat(first[0].getItems()).hasSize(20).allSatisfy(item -> assertThat(item.getBookingId()).isNotNull());
+        assertThat(statementsFor(() ->
+                feedbackService.getFeedbackByService(service.getId(), first[0].getNextCursor(), 20)))
+                .isLessThanOrEqualTo(PAGE_BUDGET);
+    }
+
+    @Test
+    void therapistPagesStayWithinBudget() {
+        addFeedback(40);
+
+        assertThat(statementsFor(() -> feedbackService.getFeedbackByTherapist(therapist.getId(), null, 50)))
+                .isLessThanOrEqualTo(PAGE_BUDGET);
+    }
+
+    private void addFeedback(int count) {
+        for (int i = 0; i < count; i++) {
+            Booking booking = Booking.builder()
+                    .customer(customer)
+                    .service(service)
+                    .therapist(therapist)
+                    .appointmentTime(LocalDateTime.now().minusDays(1))
+                    .build();
+            entityManager.persist(booking);
+            entityManager.persist(Feedback.builder()
+                    .booking(booking)
+                    .customer(customer)
+                    .service(service)
+                    .therapist(therapist)
+                    .rating(1 + i % 5)
+                    .isPublic(true)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long statementsFor(Supplier<?> page) {
+        statistics.clear();
+        page.get();
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        return statements;
+    }
+}
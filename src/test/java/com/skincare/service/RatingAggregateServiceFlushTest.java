@@ -0,0 +1,210 @@
+package com.skincare.service;
+
+import com.skincare.index.RatingLeaderboard;
+import com.skincare.model.Feedback;
+import com.skincare.model.RatingAggregate;
+import com.skincare.model.RatingAggregate.SubjectType;
+import com.skincare.model.Service;
+import com.skincare.model.Therapist;
+import com.skincare.repository.FeedbackRepository;
+import com.skincare.repository.RatingAggregateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingAggregateServiceFlushTest {
+    private static final Long SERVICE_ID = 1L;
+    private static final Long THERAPIST_ID = 2L;
+
+    private final RatingAggregateRepository repository = mock(RatingAggregateRepository.class);
+    private final RatingLeaderboard leaderboard = new RatingLeaderboard(3.5, 5);
+    private final RatingAggregateService service = new RatingAggregateService(repository,
+            mock(FeedbackRepository.class), leaderboard, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    // Histogram of every service 1 delta that reached the table
+    private final AtomicLongArray flushed = new AtomicLongArray(5);
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            if (SubjectType.SERVICE.name().equals(invocation.getArgument(0))
+                    && SERVICE_ID.equals(invocation.getArgument(1))) {
+                for (int i = 0; i < 5; i++) {
+                    flushed.addAndGet(i, invocation.<Long>getArgument(4 + i));
+                }
+            }
+            return 1;
+        }).when(repository).upsert(anyString(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong());
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void ratingsCountOnceTheirTransactionCommitsAndAreWrittenByTheFlush() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.record(feedback(5));
+        assertThat(service.getServiceSummary(SERVICE_ID).getRatingCount()).isZero();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.record(feedback(1));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(service.getServiceSummary(SERVICE_ID).getRatingCount()).isEqualTo(1);
+        assertThat(service.getTherapistSummary(THERAPIST_ID).getAverageRating()).isEqualTo(5.0);
+        verify(repository, never()).upsert(anyString(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyLong());
+
+        service.flush();
+
+        verify(repository).upsert(SubjectType.SERVICE.name(), SERVICE_ID, 1, 5, 0, 0, 0, 0, 1);
+        verify(repository).upsert(SubjectType.THERAPIST.name(), THERAPIST_ID, 1, 5, 0, 0, 0, 0, 1);
+        assertThat(service.getServiceSummary(SERVICE_ID).getRatingCount()).isEqualTo(1);
+        assertThat(service.getOverallSummary().getRatingCount()).isEqualTo(1);
+        assertThat(service.metrics()).containsEntry("pendingRatings", 0L).containsEntry("flushes", 1L);
+    }
+
+    @Test
+    void concurrentRatingsAndFlushesAddUpExactly() throws Exception {
+        int threads = 4;
+        int ratingsPerThread = 5_000;
+        AtomicBoolean rating = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                while (rating.get()) {
+                    service.flush();
+                }
+            });
+            List<Future<?>> raters = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                raters.add(executor.submit(() -> {
+                    for (int i = 0; i < ratingsPerThread; i++) {
+                        service.accumulate(SERVICE_ID, i % 2 == 0 ? THERAPIST_ID : null, i % 5 + 1);
+                    }
+                }));
+            }
+            for (Future<?> rater : raters) {
+                rater.get(30, TimeUnit.SECONDS);
+            }
+            rating.set(false);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        service.flush();
+
+        for (int star = 0; star < 5; star++) {
+            assertThat(flushed.get(star)).isEqualTo(threads * ratingsPerThread / 5);
+        }
+        assertThat(service.getServiceSummary(SERVICE_ID).getRatingCount()).isEqualTo(threads * ratingsPerThread);
+        assertThat(service.getTherapistSummary(THERAPIST_ID).getRatingCount()).isEqualTo(threads * ratingsPerThread / 2);
+        assertThat(service.getOverallSummary().getRatingCount()).isEqualTo(threads * ratingsPerThread);
+        assertThat(service.metrics()).containsEntry("pendingRatings", 0L);
+    }
+
+    @Test
+    void failedFlushKeepsTheRatingsForTheNextOne() {
+        when(repository.upsert(anyString(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong()))
+                .thenThrow(new QueryTimeoutException("Lock wait timeout exceeded"))
+                .thenReturn(1);
+        service.accumulate(SERVICE_ID, null, 4);
+        service.accumulate(SERVICE_ID, null, 4);
+
+        service.flush();
+
+        assertThat(service.getServiceSummary(SERVICE_ID).getRatingCount()).isEqualTo(2);
+        assertThat(service.metrics()).containsEntry("pendingRatings", 2L).containsEntry("flushFailures", 1L);
+
+        service.accumulate(SERVICE_ID, null, 2);
+        service.flush();
+
+        verify(repository).upsert(SubjectType.SERVICE.name(), SERVICE_ID, 3, 10, 0, 1, 0, 2, 0);
+        assertThat(service.getServiceSummary(SERVICE_ID).getRatingCount()).isEqualTo(3);
+        assertThat(service.metrics()).containsEntry("pendingRatings", 0L).containsEntry("flushes", 1L);
+    }
+
+    @Test
+    void refreshDropsSubjectsWhoseRowIsGone() {
+        when(repository.findAll()).thenReturn(List.of(row(SERVICE_ID, 4), row(3L, 2), row(4L, 5)));
+        service.refresh();
+        service.accumulate(4L, null, 5);
+
+        assertThat(leaderboard.top(SubjectType.SERVICE, 10, id -> true)).containsExactly(4L, SERVICE_ID, 3L);
+
+        // Service 3 was deleted along with its row; service 4's row went too, but one of its ratings is pending
+        when(repository.findAll()).thenReturn(List.of(row(SERVICE_ID, 4)));
+        service.refresh();
+
+        assertThat(service.getServiceSummary(3L).getRatingCount()).isZero();
+        assertThat(service.getServiceSummary(4L).getRatingCount()).isEqualTo(1);
+        assertThat(service.getOverallSummary().getRatingCount()).isEqualTo(2);
+        assertThat(leaderboard.top(SubjectType.SERVICE, 10, id -> true)).containsExactly(4L, SERVICE_ID);
+        assertThat(service.metrics()).containsEntry("subjects", 1);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private static Feedback feedback(int rating) {
+        return Feedback.builder()
+                .service(Service.builder().id(SERVICE_ID).build())
+                .therapist(Therapist.builder().id(THERAPIST_ID).build())
+                .rating(rating)
+                .build();
+    }
+
+    // A row holding only ratings of the given stars
+    private static RatingAggregate row(Long serviceId, int stars) {
+        return RatingAggregate.builder()
+                .subjectType(SubjectType.SERVICE)
+                .subjectId(serviceId)
+                .ratingCount(1)
+                .ratingSum(stars)
+                .oneStar(stars == 1 ? 1 : 0)
+                .twoStars(stars == 2 ? 1 : 0)
+                .threeStars(stars == 3 ? 1 : 0)
+                .fourStars(stars == 4 ? 1 : 0)
+                .fiveStars(stars == 5 ? 1 : 0)
+                .build();
+    }
+}
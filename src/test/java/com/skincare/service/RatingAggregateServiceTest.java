@@ -0,0 +1,135 @@
+package com.skincare.service;
+
+import com.skincare.index.RatingLeaderboard;
+import com.skincare.model.Booking;
+import com.skincare.model.Customer;
+import com.skincare.model.Feedback;
+import com.skincare.model.RatingAggregate;
+import com.skincare.model.RatingAggregate.SubjectType;
+import com.skincare.model.Service;
+import com.skincare.model.Therapist;
+import com.skincare.repository.FeedbackRepository;
+import com.skincare.repository.RatingAggregateRepository;
+import com.skincare.security.services.UserDetailsCache;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({RatingAggregateService.class, RatingLeaderboard.class, UserDetailsCache.class})
+class RatingAggregateServiceTest {
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+
+    @Autowired
+    private RatingAggregateRepository ratingAggregateRepository;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Customer customer;
+    private Service service;
+    private Therapist therapist;
+
+    @BeforeEach
+    void setUp() {
+        customer = Customer.builder().firstName("Ada").lastName("Lovelace").build();
+        service = Service.builder().name("Facial").price(new BigDecimal("80.00")).durationMinutes(60).build();
+        entityManager.persist(customer);
+        entityManager.persist(service);
+        therapist = Therapist.builder().firstName("Tess").lastName("Ray").services(Set.of(service)).build();
+        entityManager.persist(therapist);
+    }
+
+    @Test
+    void flushAddsPendingRatingsToTotalsWrittenElsewhere() {
+        // Another instance already stored three five-star ratings for the service
+        ratingAggregateRepository.upsert(SubjectType.SERVICE.name(), service.getId(), 3, 15, 0, 0, 0, 0, 3);
+        ratingAggregateService.refresh();
+
+        ratingAggregateService.accumulate(service.getId(), therapist.getId(), 4);
+        ratingAggregateService.accumulate(service.getId(), therapist.getId(), 2);
+
+        // Counted right away, written only by the flush
+        assertThat(ratingAggregateService.getServiceSummary(service.getId()).getRatingCount()).isEqualTo(5);
+        assertThat(stored(SubjectType.SERVICE, service.getId()).getRatingCount()).isEqualTo(3);
+        assertThat(ratingAggregateRepository.findBySubjectTypeAndSubjectId(SubjectType.THERAPIST, therapist.getId()))
+                .isEmpty();
+
+        ratingAggregateService.flush();
+        entityManager.clear();
+
+        RatingAggregate serviceRow = stored(SubjectType.SERVICE, service.getId());
+        assertThat(serviceRow.getRatingCount()).isEqualTo(5);
+        assertThat(serviceRow.getRatingSum()).isEqualTo(21);
+        assertThat(new long[]{serviceRow.getOneStar(), serviceRow.getTwoStars(), serviceRow.getThreeStars(),
+                serviceRow.getFourStars(), serviceRow.getFiveStars()}).containsExactly(0, 1, 0, 1, 3);
+        assertThat(stored(SubjectType.THERAPIST, therapist.getId()).getRatingCount()).isEqualTo(2);
+        assertThat(ratingAggregateService.getServiceSummary(service.getId()).getRatingCount()).isEqualTo(5);
+
+        ratingAggregateService.refresh();
+        assertThat(ratingAggregateService.getServiceSummary(service.getId()).getRatingCount()).isEqualTo(5);
+        assertThat(ratingAggregateService.getServiceSummary(service.getId()).getAverageRating()).isEqualTo(21 / 5.0);
+        assertThat(ratingAggregateService.getTherapistSummary(therapist.getId()).getRatingCount()).isEqualTo(2);
+    }
+
+    @Test
+    void loadRebuildsTotalsThatDoNotMatchFeedback() {
+        addFeedback(5);
+        addFeedback(3);
+        addFeedback(3);
+        // Written by a single rating before the store was backfilled
+        ratingAggregateRepository.upsert(SubjectType.SERVICE.name(), service.getId(), 1, 3, 0, 0, 1, 0, 0);
+        // The service instance outlives the test, so earlier tests may have counted rebuilds
+        long rebuildsBefore = (long) ratingAggregateService.metrics().get("rebuilds");
+
+        ratingAggregateService.load();
+        entityManager.clear();
+
+        assertThat(stored(SubjectType.SERVICE, service.getId()).getRatingCount()).isEqualTo(3);
+        assertThat(stored(SubjectType.THERAPIST, therapist.getId()).getRatingSum()).isEqualTo(11);
+        assertThat(ratingAggregateService.getServiceSummary(service.getId()).getDistribution())
+                .containsEntry(3, 2L).containsEntry(5, 1L);
+        assertThat(ratingAggregateService.getOverallSummary().getRatingCount()).isEqualTo(feedbackRepository.count());
+        assertThat(ratingAggregateService.metrics()).containsEntry("rebuilds", rebuildsBefore + 1);
+    }
+
+    private Feedback addFeedback(int rating) {
+        Booking booking = Booking.builder()
+                .customer(customer)
+                .service(service)
+                .therapist(therapist)
+                .appointmentTime(LocalDateTime.now().minusDays(1))
+                .build();
+        entityManager.persist(booking);
+        Feedback feedback = Feedback.builder()
+                .booking(booking)
+                .customer(customer)
+                .service(service)
+                .therapist(therapist)
+                .rating(rating)
+                .isPublic(true)
+                .build();
+        entityManager.persist(feedback);
+        entityManager.flush();
+        return feedback;
+    }
+
+    private RatingAggregate stored(SubjectType type, Long id) {
+        return ratingAggregateRepository.findBySubjectTypeAndSubjectId(type, id).orElseThrow();
+    }
+}
@@ -0,0 +1,119 @@
+package com.skincare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skincare.cache.CatalogCache;
+import com.skincare.cache.RecommendationCache;
+import com.skincare.dto.BulkSkinTestResultDto;
+import com.skincare.index.RecommendationIndex;
+import com.skincare.index.ServiceSimilarityIndex;
+import com.skincare.model.SkinTest;
+import com.skincare.repository.CustomerRepository;
+import com.skincare.repository.SkinTestJdbcRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SkinTestServiceImportTest {
+    private final SkinTestJdbcRepository skinTestJdbcRepository = mock(SkinTestJdbcRepository.class);
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private final SkinTestService skinTestService = new SkinTestService(mock(SkinTestWriter.class),
+            skinTestJdbcRepository, new ObjectMapper(), customerRepository, mock(RecommendationIndex.class),
+            mock(ServiceSimilarityIndex.class), mock(CatalogCache.class), mock(RecommendationCache.class),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    // Every batch handed to the repository that went through, in order
+    private final List<List<String>> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(customerRepository.findExistingIds(anyCollection())).thenReturn(Set.of(1L));
+        doAnswer(invocation -> {
+            List<SkinTest> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(skinTest -> "unstorable".equals(skinTest.getSkinType()))) {
+                throw new DataIntegrityViolationException("Incorrect string value for column 'skin_type'");
+            }
+            stored.add(batch.stream().map(SkinTest::getSkinType).toList());
+            return null;
+        }).when(skinTestJdbcRepository).batchInsert(anyList());
+    }
+
+    @Test
+    void malformedTailEndsTheImportAfterStoringWhatCameBefore() throws IOException {
+        List<BulkSkinTestResultDto> results = importSkinTests("""
+                {"skinType": "oily", "oiliness": 8}
+                {"skinType": "dry", "hydration": 2}
+                {"skinType": "combination", "oiliness":
+                """);
+
+        assertThat(results).extracting(BulkSkinTestResultDto::getIndex, BulkSkinTestResultDto::isSuccess)
+                .containsExactly(tuple(0, true), tuple(1, true), tuple(2, false));
+        assertThat(results.get(2).getMessage()).startsWith("Malformed record");
+        assertThat(stored).containsExactly(List.of("oily", "dry"));
+    }
+
+    @Test
+    void invalidRowsAreReportedAndTheRestOfTheChunkIsStored() throws IOException {
+        List<BulkSkinTestResultDto> results = importSkinTests("""
+                [{"skinType": "oily", "customerId": 1},
+                 {"skinType": "dry", "customerId": 99},
+                 {"skinType": "%s"},
+                 {"skinType": "normal"}]
+                """.formatted("x".repeat(256)));
+
+        assertThat(results).extracting(BulkSkinTestResultDto::isSuccess).containsExactly(true, false, false, true);
+        assertThat(results.get(1).getMessage()).isEqualTo("Customer not found with id: 99");
+        assertThat(results.get(2).getMessage()).isEqualTo("skinType: Skin type must be at most 255 characters");
+        assertThat(stored).containsExactly(List.of("oily", "normal"));
+    }
+
+    @Test
+    void failedChunkFallsBackToOneRecordAtATime() throws IOException {
+        List<BulkSkinTestResultDto> results = importSkinTests("""
+                {"skinType": "oily"}
+                {"skinType": "unstorable"}
+                {"skinType": "dry"}
+                """);
+
+        assertThat(results).extracting(BulkSkinTestResultDto::getIndex, BulkSkinTestResultDto::isSuccess)
+                .containsExactly(tuple(0, true), tuple(1, false), tuple(2, true));
+        assertThat(results.get(1).getMessage()).isEqualTo("Could not be stored, please retry");
+        assertThat(stored).containsExactly(List.of("oily"), List.of("dry"));
+    }
+
+    @Test
+    void recordsAreWrittenInChunksAndNumberedAcrossThem() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i <= SkinTestService.IMPORT_CHUNK_SIZE; i++) {
+            body.append("{\"skinType\": \"type ").append(i).append("\"}\n");
+        }
+
+        List<BulkSkinTestResultDto> results = importSkinTests(body.toString());
+
+        assertThat(results).hasSize(SkinTestService.IMPORT_CHUNK_SIZE + 1).allMatch(BulkSkinTestResultDto::isSuccess);
+        assertThat(results.get(SkinTestService.IMPORT_CHUNK_SIZE).getIndex()).isEqualTo(SkinTestService.IMPORT_CHUNK_SIZE);
+        assertThat(stored).extracting(List::size).containsExactly(SkinTestService.IMPORT_CHUNK_SIZE, 1);
+    }
+
+    private List<BulkSkinTestResultDto> importSkinTests(String body) throws IOException {
+        return skinTestService.importSkinTests(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
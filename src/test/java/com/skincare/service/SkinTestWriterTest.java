@@ -0,0 +1,79 @@
+package com.skincare.service;
+
+import com.skincare.exception.ServiceBusyException;
+import com.skincare.model.SkinTest;
+import com.skincare.repository.SkinTestJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class SkinTestWriterTest {
+    private final SkinTestJdbcRepository repository = mock(SkinTestJdbcRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Test
+    void badRowIsDeadLetteredWithoutBlockingTheRest() throws InterruptedException {
+        doAnswer(invocation -> {
+            List<SkinTest> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(skinTest -> "bad".equals(skinTest.getSkinType()))) {
+                throw new DataIntegrityViolationException("Data too long for column 'skin_type'");
+            }
+            return null;
+        }).when(repository).batchInsert(anyList());
+        SkinTestWriter writer = new SkinTestWriter(repository, transactionManager, 100, 10, 3);
+
+        writer.submit(skinTest("oily"));
+        writer.submit(skinTest("bad"));
+        writer.submit(skinTest("dry"));
+        writer.shutdown();
+
+        assertThat(writer.metrics())
+                .containsEntry("written", 2L)
+                .containsEntry("deadLettered", 1L);
+    }
+
+    @Test
+    void transientFailuresAreRetried() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new QueryTimeoutException("Lock wait timeout exceeded");
+            }
+            return null;
+        }).when(repository).batchInsert(anyList());
+        SkinTestWriter writer = new SkinTestWriter(repository, transactionManager, 100, 10, 3);
+
+        writer.submit(skinTest("oily"));
+        writer.submit(skinTest("dry"));
+        writer.shutdown();
+
+        assertThat(calls).hasValue(2);
+        assertThat(writer.metrics())
+                .containsEntry("written", 2L)
+                .containsEntry("batches", 1L)
+                .containsEntry("deadLettered", 0L);
+    }
+
+    @Test
+    void submissionsAfterShutdownAreRejected() throws InterruptedException {
+        SkinTestWriter writer = new SkinTestWriter(repository, transactionManager, 100, 10, 3);
+        writer.shutdown();
+
+        assertThatThrownBy(() -> writer.submit(skinTest("oily"))).isInstanceOf(ServiceBusyException.class);
+    }
+
+    private static SkinTest skinTest(String skinType) {
+        return SkinTest.builder().skinType(skinType).createdAt(LocalDateTime.now()).build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.skincare.service;
+
+import com.skincare.dto.AvailableSlotDto;
+import com.skincare.exception.InvalidRangeException;
+import com.skincare.index.TherapistAvailabilityIndex;
+import com.skincare.repository.BookingRepository;
+import com.skincare.repository.ServiceRepository;
+import com.skincare.repository.TherapistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class SlotSearchServiceTest {
+    private static final LocalDate MONDAY = LocalDate.now().plusDays(3).with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+    private final TherapistAvailabilityIndex index = new TherapistAvailabilityIndex(mock(BookingRepository.class));
+    private final SlotSearchService slotSearchService =
+            new SlotSearchService(mock(ServiceRepository.class), mock(TherapistRepository.class), index);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(slotSearchService, "maxSearchDays", 31);
+    }
+
+    @Test
+    void searchMovesOnToTheNextDayWhenOneIsFullyBooked() {
+        index.reserve(1L, 7L, MONDAY.atTime(9, 0), 11 * 60);
+
+        List<AvailableSlotDto> slots = slotSearchService.findAvailableSlots(List.of(7L), 60,
+                MONDAY.atStartOfDay(), TUESDAY.atTime(23, 0), 2);
+
+        assertThat(slots).extracting(AvailableSlotDto::getStartTime)
+                .containsExactly(TUESDAY.atTime(9, 0), TUESDAY.atTime(9, 15));
+    }
+
+    @Test
+    void slotsNeverRunPastClosingOrTheEndOfTheRange() {
+        List<AvailableSlotDto> evening = slotSearchService.findAvailableSlots(List.of(7L), 60,
+                MONDAY.atTime(19, 0), TUESDAY.atTime(9, 30), 10);
+
+        assertThat(evening).extracting(AvailableSlotDto::getStartTime)
+                .containsExactly(MONDAY.atTime(19, 0));
+        assertThat(evening.get(0).getEndTime()).isEqualTo(MONDAY.atTime(20, 0));
+
+        List<AvailableSlotDto> morning = slotSearchService.findAvailableSlots(List.of(7L), 60,
+                TUESDAY.atStartOfDay(), TUESDAY.atTime(10, 30), 10);
+
+        assertThat(morning).extracting(AvailableSlotDto::getStartTime)
+                .containsExactly(TUESDAY.atTime(9, 0), TUESDAY.atTime(9, 15), TUESDAY.atTime(9, 30));
+    }
+
+    @Test
+    void slotsStartAfterTheBookingNotice() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<AvailableSlotDto> slots = slotSearchService.findAvailableSlots(List.of(7L), 60, now, now.plusDays(3), 5);
+
+        assertThat(slots).isNotEmpty()
+                .allSatisfy(slot -> assertThat(slot.getStartTime()).isAfterOrEqualTo(now.plusHours(24)));
+    }
+
+    @Test
+    void resultsAreCappedAtMaxSlots() {
+        List<AvailableSlotDto> slots = slotSearchService.findAvailableSlots(List.of(7L, 8L), 60,
+                MONDAY.atStartOfDay(), MONDAY.plusDays(7).atStartOfDay(), 10_000);
+
+        assertThat(slots).hasSize(SlotSearchService.MAX_SLOTS);
+        assertThat(slotSearchService.findAvailableSlots(List.of(7L), 60,
+                MONDAY.atStartOfDay(), TUESDAY.atStartOfDay(), 0)).hasSize(1);
+    }
+
+    @Test
+    void rangesThatAreInvertedOrTooLongAreRejected() {
+        assertThatThrownBy(() -> slotSearchService.findAvailableSlots(List.of(7L), 60,
+                TUESDAY.atStartOfDay(), MONDAY.atStartOfDay(), 10))
+                .isInstanceOf(InvalidRangeException.class);
+        assertThatThrownBy(() -> slotSearchService.findAvailableSlots(List.of(7L), 60,
+                MONDAY.atStartOfDay(), MONDAY.plusDays(32).atStartOfDay(), 10))
+                .isInstanceOf(InvalidRangeException.class)
+                .hasMessageContaining("31 days");
+        assertThat(slotSearchService.findAvailableSlots(List.of(7L), 60,
+                MONDAY.atStartOfDay(), MONDAY.plusDays(31).atStartOfDay(), 10)).hasSize(10);
+    }
+}